@@ -0,0 +1,284 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.chat.ChannelSender;
+import ca.xef5000.talkGroups.chat.FanOut;
+import ca.xef5000.talkGroups.chat.MentionIndex;
+import ca.xef5000.talkGroups.chat.MessageFormatter;
+import ca.xef5000.talkGroups.chat.ProximityIndex;
+import ca.xef5000.talkGroups.concurrent.AsyncExecutor;
+import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.database.DatabaseManager;
+import ca.xef5000.talkGroups.manager.PermissionCache;
+import ca.xef5000.talkGroups.manager.PlayerDataManager;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.metrics.Tracer;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless stand-ins for the Bukkit runtime used by the benchmarks.
+ * Players and the server are {@link Proxy} stubs that only answer the calls
+ * TalkGroups makes on the chat path; the plugin instance is created without
+ * running the JavaPlugin constructor, which requires a plugin class loader.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+final class BenchmarkHarness {
+
+    private static final Logger SILENT = Logger.getLogger("TalkGroups-Benchmark");
+    private static volatile Collection<? extends Player> onlinePlayers = Collections.emptyList();
+
+    static {
+        SILENT.setUseParentHandlers(false);
+        SILENT.setLevel(Level.OFF);
+    }
+
+    /**
+     * Counts messages delivered to stub players, so deliveries can't be optimized away.
+     */
+    static final LongAdder DELIVERED = new LongAdder();
+
+    /**
+     * Simulated cost of one sendMessage call, in Blackhole CPU tokens. Stub
+     * players otherwise send for free, which hides what parallel fan-out saves.
+     */
+    static volatile long sendCostTokens;
+
+    private BenchmarkHarness() {
+    }
+
+    /**
+     * Installs the stub server, once per JVM.
+     */
+    static synchronized void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+
+        Server server = (Server) Proxy.newProxyInstance(BenchmarkHarness.class.getClassLoader(),
+                new Class<?>[]{Server.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getOnlinePlayers" -> onlinePlayers;
+                    case "getLogger" -> SILENT;
+                    case "getName", "getVersion", "getBukkitVersion" -> "benchmark";
+                    case "isPrimaryThread" -> true;
+                    default -> defaultValue(method);
+                });
+        Bukkit.setServer(server);
+    }
+
+    /**
+     * Replaces the players returned by {@code Bukkit.getOnlinePlayers()}.
+     *
+     * @param players The online players
+     */
+    static void setOnlinePlayers(List<Player> players) {
+        onlinePlayers = Collections.unmodifiableList(new ArrayList<>(players));
+    }
+
+    /**
+     * Creates a stub player.
+     *
+     * @param name The player name
+     * @param permissions The permissions granted to the player
+     * @return The stub player
+     */
+    static Player player(String name, Set<String> permissions) {
+        UUID id = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+
+        return (Player) Proxy.newProxyInstance(BenchmarkHarness.class.getClassLoader(),
+                new Class<?>[]{Player.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getUniqueId" -> id;
+                    case "getName", "getDisplayName" -> name;
+                    case "hasPermission" -> args[0] instanceof String node && permissions.contains(node);
+                    case "isOnline" -> true;
+                    case "sendMessage" -> {
+                        DELIVERED.increment();
+                        if (sendCostTokens > 0) {
+                            Blackhole.consumeCPU(sendCostTokens);
+                        }
+                        yield null;
+                    }
+                    case "hashCode" -> id.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubPlayer{" + name + "}";
+                    default -> defaultValue(method);
+                });
+    }
+
+    /**
+     * Creates a TalkGroups instance backed by a temporary data folder holding
+     * a generated config.yml with the given number of channels.
+     *
+     * @param dataFolder The data folder
+     * @param channels The number of TalkGroups to generate
+     * @return The plugin, with configuration, storage and managers initialized
+     * @throws Exception if the plugin could not be created
+     */
+    static TalkGroups createPlugin(Path dataFolder, int channels) throws Exception {
+        installServer();
+        Files.createDirectories(dataFolder);
+        Files.writeString(dataFolder.resolve("config.yml"), configYaml(channels));
+        try (InputStream messages = TalkGroups.class.getClassLoader().getResourceAsStream("messages.yml")) {
+            Files.copy(messages, dataFolder.resolve("messages.yml"), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        TalkGroups plugin = allocate(TalkGroups.class);
+        setField(JavaPlugin.class, plugin, "dataFolder", dataFolder.toFile());
+        setField(JavaPlugin.class, plugin, "classLoader", TalkGroups.class.getClassLoader());
+        setField(JavaPlugin.class, plugin, "logger", SILENT);
+        setField(JavaPlugin.class, plugin, "isEnabled", true);
+
+        setField(TalkGroups.class, plugin, "metrics", new MetricsRegistry());
+        setField(TalkGroups.class, plugin, "tracer", Tracer.disabled());
+        setField(TalkGroups.class, plugin, "fanOut", FanOut.serial());
+        setField(TalkGroups.class, plugin, "asyncExecutor", AsyncExecutor.platform(2));
+        setField(TalkGroups.class, plugin, "proximityIndex", new ProximityIndex());
+        setField(TalkGroups.class, plugin, "mentionIndex", new MentionIndex());
+
+        ConfigManager configManager = new ConfigManager(plugin);
+        setField(TalkGroups.class, plugin, "configManager", configManager);
+        configManager.apply(configManager.parse());
+
+        DatabaseManager databaseManager = new DatabaseManager(plugin);
+        databaseManager.initialize();
+        setField(TalkGroups.class, plugin, "databaseManager", databaseManager);
+
+        setField(TalkGroups.class, plugin, "playerDataManager", new PlayerDataManager(plugin, databaseManager));
+        setField(TalkGroups.class, plugin, "permissionCache", new PermissionCache(plugin, 0));
+        setField(TalkGroups.class, plugin, "messageFormatter", new MessageFormatter(configManager));
+        setField(TalkGroups.class, plugin, "channelSender", new ChannelSender(plugin));
+
+        return plugin;
+    }
+
+    /**
+     * Releases storage held by a benchmark plugin and deletes its data folder.
+     *
+     * @param plugin The plugin
+     * @param dataFolder The data folder
+     */
+    static void destroyPlugin(TalkGroups plugin, Path dataFolder) throws IOException {
+        plugin.getFanOut().shutdown();
+        plugin.getAsyncExecutor().shutdown(5000L);
+        plugin.getDatabaseManager().close();
+        try (var files = Files.walk(dataFolder)) {
+            files.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Replaces the plugin's fan-out, shutting down the previous one.
+     *
+     * @param plugin The plugin
+     * @param fanOut The fan-out to use
+     * @throws Exception if the field could not be set
+     */
+    static void setFanOut(TalkGroups plugin, FanOut fanOut) throws Exception {
+        plugin.getFanOut().shutdown();
+        setField(TalkGroups.class, plugin, "fanOut", fanOut);
+    }
+
+    /**
+     * Replaces the plugin's async executor, shutting down the previous one.
+     *
+     * @param plugin The plugin
+     * @param executor The executor to use
+     * @throws Exception if the field could not be set
+     */
+    static void setAsyncExecutor(TalkGroups plugin, AsyncExecutor executor) throws Exception {
+        plugin.getAsyncExecutor().shutdown(5000L);
+        setField(TalkGroups.class, plugin, "asyncExecutor", executor);
+    }
+
+    /**
+     * Generates a config.yml defining channels "channel0" to "channel{n-1}",
+     * each gated by the permission "talkgroups.channel{i}".
+     *
+     * @param channels The number of channels
+     * @return The YAML text
+     */
+    static String configYaml(int channels) {
+        StringBuilder yaml = new StringBuilder("settings:\n  auto-reload:\n    enabled: false\n  outbound:\n    tick-budget-ms: 0\ntalkgroups:\n");
+        for (int i = 0; i < channels; i++) {
+            yaml.append("  channel").append(i).append(":\n")
+                    .append("    name: \"&c&lCHANNEL").append(i).append("\"\n")
+                    .append("    permission: \"talkgroups.channel").append(i).append("\"\n")
+                    .append("    cooldown: 0\n")
+                    .append("    silencable: true\n")
+                    .append("    notify: ").append(i % 2 == 0).append('\n')
+                    .append("    notify-delay: 60\n")
+                    .append("    alias: \"ch").append(i).append("\"\n")
+                    .append("    prefix: \"&8[&cCH").append(i).append("&8]\"\n");
+        }
+        return yaml.toString();
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0D;
+        }
+        if (type == float.class) {
+            return 0.0F;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T allocate(Class<T> type) throws Exception {
+        Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        Object unsafe = field.get(null);
+        Method allocateInstance = unsafe.getClass().getMethod("allocateInstance", Class.class);
+        return (T) allocateInstance.invoke(unsafe, type);
+    }
+
+    private static void setField(Class<?> owner, Object target, String name, Object value) throws Exception {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,116 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.command.AliasCommand;
+import ca.xef5000.talkGroups.manager.PlayerDataManager;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full alias command invocation: validation and formatting in
+ * {@code ChannelSender}, then the fan-out in {@code ChannelSender.sendToChannel}
+ * to every online player, which resolves recipients through {@code FanOut} and
+ * hands the line to {@code OutboundQueue}. The tick budget is disabled, so
+ * every line is sent inline rather than deferred to a later tick.
+ * Each player can access roughly half of the channels and has muted a tenth
+ * of those, so the muted-notification branch is exercised as well.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChannelBroadcastBenchmark {
+
+    @Param({"7", "50", "200"})
+    public int channels;
+
+    @Param({"50", "500", "2000"})
+    public int players;
+
+    private Path dataFolder;
+    private TalkGroups plugin;
+    private AliasCommand[] commands;
+    private Player sender;
+    private String[] args;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        dataFolder = Files.createTempDirectory("talkgroups-bench");
+        plugin = BenchmarkHarness.createPlugin(dataFolder, channels);
+        PlayerDataManager dataManager = plugin.getPlayerDataManager();
+
+        List<Player> online = new ArrayList<>(players);
+        for (int p = 0; p < players; p++) {
+            Set<String> permissions = new HashSet<>();
+            for (int c = 0; c < channels; c++) {
+                if ((p + c) % 2 == 0) {
+                    permissions.add("talkgroups.channel" + c);
+                }
+            }
+            Player player = BenchmarkHarness.player("player" + p, permissions);
+            online.add(player);
+
+            for (int c = 0; c < channels; c++) {
+                if ((p + c) % 20 == 0) {
+                    dataManager.getPlayerData(player).muteChannel("channel" + c);
+                }
+            }
+        }
+        BenchmarkHarness.setOnlinePlayers(online);
+
+        Set<String> all = new HashSet<>();
+        for (int c = 0; c < channels; c++) {
+            all.add("talkgroups.channel" + c);
+        }
+        sender = BenchmarkHarness.player("sender", all);
+
+        commands = new AliasCommand[channels];
+        for (int c = 0; c < channels; c++) {
+            TalkGroup group = plugin.getConfigManager().getTalkGroup("channel" + c);
+            commands[c] = new AliasCommand(plugin, group);
+        }
+
+        args = "Need backup at spawn, griefer in the &cnether &fportal room".split(" ");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkHarness.destroyPlugin(plugin, dataFolder);
+    }
+
+    /**
+     * Sends one message, rotating through the channels.
+     */
+    @Benchmark
+    public boolean sendToChannel() {
+        AliasCommand command = commands[next];
+        next = next + 1 == commands.length ? 0 : next + 1;
+        return command.onCommand(sender, null, "ch", args);
+    }
+}
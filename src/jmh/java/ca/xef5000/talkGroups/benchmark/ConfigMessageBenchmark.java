@@ -0,0 +1,69 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.config.ConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures messages.yml lookups through {@link ConfigManager#getMessage},
+ * with and without placeholder replacement.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigMessageBenchmark {
+
+    private Path dataFolder;
+    private TalkGroups plugin;
+    private ConfigManager configManager;
+
+    @Setup
+    public void setup() throws Exception {
+        dataFolder = Files.createTempDirectory("talkgroups-bench");
+        plugin = BenchmarkHarness.createPlugin(dataFolder, 7);
+        configManager = plugin.getConfigManager();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkHarness.destroyPlugin(plugin, dataFolder);
+    }
+
+    @Benchmark
+    public String getMessage() {
+        return configManager.getMessage("command.no-permission");
+    }
+
+    @Benchmark
+    public String getMessageWithPlaceholders() {
+        return configManager.getMessage("channel.notification",
+                "count", "12",
+                "channel", "STAFF",
+                "time", "2 minutes");
+    }
+
+    @Benchmark
+    public String getMissingMessage() {
+        return configManager.getMessage("command.does-not-exist");
+    }
+}
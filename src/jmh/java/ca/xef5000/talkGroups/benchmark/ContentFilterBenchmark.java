@@ -0,0 +1,106 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.model.ContentFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares checking a chat message against blocked terms with the compiled
+ * Aho-Corasick filter, one case-insensitive regex per term, and a single
+ * regex alternation of all terms. Messages are clean, which is the common
+ * case and the worst case for the regex approaches since no search can
+ * stop early.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentFilterBenchmark {
+
+    private static final String MESSAGE = "Anyone up for a trip to the nether fortress after the server restart? "
+            + "Bring food and some spare armor";
+
+    @Param({"10", "100", "500"})
+    public int terms;
+
+    private ContentFilter filter;
+    private Pattern[] patterns;
+    private Pattern alternation;
+    private StringBuilder censorTarget;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        List<String> words = new ArrayList<>(terms);
+        for (int i = 0; i < terms; i++) {
+            // Letters only, so terms share prefixes with real words without matching the message
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.append('q').toString());
+        }
+
+        filter = ContentFilter.compile(words, ContentFilter.Action.CENSOR, true);
+
+        patterns = new Pattern[words.size()];
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < words.size(); i++) {
+            patterns[i] = Pattern.compile(Pattern.quote(words.get(i)), Pattern.CASE_INSENSITIVE);
+            if (i > 0) {
+                joined.append('|');
+            }
+            joined.append(Pattern.quote(words.get(i)));
+        }
+        alternation = Pattern.compile(joined.toString(), Pattern.CASE_INSENSITIVE);
+        censorTarget = new StringBuilder(MESSAGE.length());
+    }
+
+    @Benchmark
+    public boolean ahoCorasick() {
+        return filter.matches(MESSAGE, 0, MESSAGE.length());
+    }
+
+    @Benchmark
+    public int ahoCorasickCensor() {
+        censorTarget.setLength(0);
+        censorTarget.append(MESSAGE);
+        return filter.censor(censorTarget, 0, censorTarget.length());
+    }
+
+    @Benchmark
+    public boolean regexPerTerm() {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(MESSAGE).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean regexAlternation() {
+        return alternation.matcher(MESSAGE).find();
+    }
+}
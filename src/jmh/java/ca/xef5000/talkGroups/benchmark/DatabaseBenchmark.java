@@ -0,0 +1,96 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.concurrent.AsyncExecutor;
+import ca.xef5000.talkGroups.database.DatabaseManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures DatabaseManager round trips against a SQLite file in a temporary
+ * folder, waiting for each asynchronous operation to complete. The
+ * {@code executor} parameter selects the async executor mode; "virtual"
+ * falls back to platform threads on runtimes older than Java 21.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    @Param({"7", "50"})
+    public int mutedPerPlayer;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    private Path dataFolder;
+    private TalkGroups plugin;
+    private DatabaseManager database;
+    private UUID[] playerIds;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        dataFolder = Files.createTempDirectory("talkgroups-bench");
+        plugin = BenchmarkHarness.createPlugin(dataFolder, 7);
+        database = plugin.getDatabaseManager();
+        BenchmarkHarness.setAsyncExecutor(plugin,
+                AsyncExecutor.create(AsyncExecutor.parseMode(executor), 2, plugin.getLogger()));
+
+        playerIds = new UUID[256];
+        for (int p = 0; p < playerIds.length; p++) {
+            playerIds[p] = UUID.randomUUID();
+            for (int c = 0; c < mutedPerPlayer; c++) {
+                database.saveMutedChannel(playerIds[p], "channel" + c).join();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkHarness.destroyPlugin(plugin, dataFolder);
+    }
+
+    private UUID nextPlayer() {
+        UUID playerId = playerIds[next];
+        next = next + 1 == playerIds.length ? 0 : next + 1;
+        return playerId;
+    }
+
+    @Benchmark
+    public Set<String> loadMutedChannels() {
+        return database.loadMutedChannels(nextPlayer()).join();
+    }
+
+    /**
+     * A mute followed by the matching unmute, as done by a GUI toggle pair.
+     */
+    @Benchmark
+    public void muteUnmuteRoundTrip() {
+        UUID playerId = nextPlayer();
+        database.saveMutedChannel(playerId, "toggled").join();
+        database.removeMutedChannel(playerId, "toggled").join();
+    }
+}
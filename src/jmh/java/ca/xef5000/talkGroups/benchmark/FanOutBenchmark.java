@@ -0,0 +1,93 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.chat.FanOut;
+import ca.xef5000.talkGroups.command.AliasCommand;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serial and parallel fan-out of one broadcast to every online
+ * player, to find the recipient count from which settings.fan-out.parallel
+ * pays off. Stub players burn {@code sendCost} Blackhole tokens per message
+ * to stand in for the cost of encoding and queueing a chat packet; the
+ * crossover moves down as that cost grows.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+
+    @Param({"64", "128", "256", "512", "1024", "2048", "4096"})
+    public int players;
+
+    @Param({"serial", "parallel"})
+    public String mode;
+
+    @Param({"50", "500"})
+    public long sendCost;
+
+    private Path dataFolder;
+    private TalkGroups plugin;
+    private AliasCommand command;
+    private Player sender;
+    private String[] args;
+
+    @Setup
+    public void setup() throws Exception {
+        dataFolder = Files.createTempDirectory("talkgroups-bench");
+        plugin = BenchmarkHarness.createPlugin(dataFolder, 1);
+
+        if (mode.equals("parallel")) {
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            BenchmarkHarness.setFanOut(plugin, new FanOut(parallelism, 1, 64));
+        }
+
+        Set<String> permissions = Set.of("talkgroups.channel0");
+        List<Player> online = new ArrayList<>(players);
+        for (int p = 0; p < players; p++) {
+            online.add(BenchmarkHarness.player("player" + p, permissions));
+        }
+        BenchmarkHarness.setOnlinePlayers(online);
+        BenchmarkHarness.sendCostTokens = sendCost;
+
+        sender = BenchmarkHarness.player("sender", permissions);
+        command = new AliasCommand(plugin, plugin.getConfigManager().getTalkGroup("channel0"));
+        args = "Event starting at spawn in five minutes".split(" ");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkHarness.sendCostTokens = 0;
+        BenchmarkHarness.destroyPlugin(plugin, dataFolder);
+    }
+
+    @Benchmark
+    public boolean broadcast() {
+        return command.onCommand(sender, null, "ch0", args);
+    }
+}
@@ -0,0 +1,111 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.chat.ChannelFormat;
+import ca.xef5000.talkGroups.chat.ChatBuffer;
+import ca.xef5000.talkGroups.chat.MessageFormatter;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original argument joining and formatting of AliasCommand with
+ * the single-pass ChatBuffer rendering, both from a precompiled format and
+ * through MessageFormatter as ChannelSender calls it, including the lookup
+ * of the TalkGroup's compiled format.
+ * Run with the gc profiler (enabled in build.gradle) and compare
+ * {@code gc.alloc.rate.norm}, the bytes allocated per message.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageFormatBenchmark {
+
+    private static final String TEMPLATE = "{prefix} &r{player}&7: &f{message}{suffix}";
+
+    @Param({"3", "12", "40"})
+    public int words;
+
+    private Path dataFolder;
+    private TalkGroups plugin;
+    private MessageFormatter formatter;
+    private TalkGroup group;
+    private ChannelFormat format;
+    private String[] args;
+
+    @Setup
+    public void setup() throws Exception {
+        // The default messages.yml uses TEMPLATE as channel.format
+        dataFolder = Files.createTempDirectory("talkgroups-bench");
+        plugin = BenchmarkHarness.createPlugin(dataFolder, 1);
+        formatter = plugin.getMessageFormatter();
+        group = plugin.getConfigManager().getTalkGroup("channel0");
+        format = ChannelFormat.compile(TEMPLATE, group);
+
+        args = new String[words];
+        for (int i = 0; i < words; i++) {
+            args[i] = (i % 5 == 0) ? "&eword" + i : "word" + i;
+        }
+    }
+
+    /**
+     * The pre-ChatBuffer path: join, trim, four replace calls and a color translation.
+     */
+    @Benchmark
+    public String legacy() {
+        StringBuilder messageBuilder = new StringBuilder();
+        for (String arg : args) {
+            messageBuilder.append(arg).append(" ");
+        }
+        String message = messageBuilder.toString().trim();
+
+        String line = TEMPLATE;
+        line = line.replace("{prefix}", group.getFormattedPrefix());
+        line = line.replace("{suffix}", group.getFormattedSuffix());
+        line = line.replace("{player}", "Notch");
+        line = line.replace("{message}", message);
+
+        return ChatColor.translateAlternateColorCodes('&', line);
+    }
+
+    @Benchmark
+    public String chatBuffer() {
+        return ChatBuffer.acquire().render(format, "Notch", args, 0, true).toLine();
+    }
+
+    @Benchmark
+    public String chatBufferStripColors() {
+        return ChatBuffer.acquire().render(format, "Notch", args, 0, false).toLine();
+    }
+
+    @Benchmark
+    public String messageFormatter() {
+        return formatter.render(group, "Notch", args, 0, true).toLine();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkHarness.destroyPlugin(plugin, dataFolder);
+    }
+}
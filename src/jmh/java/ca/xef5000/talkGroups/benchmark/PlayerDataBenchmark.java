@@ -0,0 +1,88 @@
+package ca.xef5000.talkGroups.benchmark;
+
+import ca.xef5000.talkGroups.model.PlayerData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-recipient PlayerData checks done on the chat path:
+ * mute lookups, cooldown checks and missed-message bookkeeping.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerDataBenchmark {
+
+    @Param({"7", "50", "200"})
+    public int channels;
+
+    private PlayerData data;
+    private String[] channelIds;
+    private int next;
+
+    @Setup
+    public void setup() {
+        data = new PlayerData(UUID.randomUUID());
+        channelIds = new String[channels];
+        for (int i = 0; i < channels; i++) {
+            channelIds[i] = "channel" + i;
+            if (i % 3 == 0) {
+                data.muteChannel(channelIds[i]);
+            }
+            if (i % 4 == 0) {
+                data.setCooldown(channelIds[i], 3600);
+            }
+        }
+    }
+
+    private String nextChannel() {
+        String channelId = channelIds[next];
+        next = next + 1 == channelIds.length ? 0 : next + 1;
+        return channelId;
+    }
+
+    @Benchmark
+    public boolean isChannelMuted() {
+        return data.isChannelMuted(nextChannel());
+    }
+
+    @Benchmark
+    public boolean isOnCooldown() {
+        return data.isOnCooldown(nextChannel());
+    }
+
+    @Benchmark
+    public int getRemainingCooldown() {
+        return data.getRemainingCooldown(nextChannel());
+    }
+
+    @Benchmark
+    public boolean shouldNotify() {
+        return data.shouldNotify(nextChannel(), 60);
+    }
+
+    @Benchmark
+    public int incrementMissedMessages() {
+        String channelId = nextChannel();
+        data.incrementMissedMessages(channelId);
+        return data.getMissedMessages(channelId);
+    }
+}
@@ -1,17 +1,52 @@
 package ca.xef5000.talkGroups;
 
+import ca.xef5000.talkGroups.api.TalkGroupsAPI;
+import ca.xef5000.talkGroups.api.TalkGroupsService;
+import ca.xef5000.talkGroups.chat.ChannelSender;
+import ca.xef5000.talkGroups.chat.ChatRouter;
+import ca.xef5000.talkGroups.chat.FanOut;
+import ca.xef5000.talkGroups.chat.MentionIndex;
+import ca.xef5000.talkGroups.chat.MessageFormatter;
+import ca.xef5000.talkGroups.chat.ProximityIndex;
 import ca.xef5000.talkGroups.command.AliasCommand;
 import ca.xef5000.talkGroups.command.TalkGroupCommand;
+import ca.xef5000.talkGroups.concurrent.AsyncExecutor;
 import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.config.ConfigWatcher;
+import ca.xef5000.talkGroups.config.TalkGroupDiff;
 import ca.xef5000.talkGroups.database.DatabaseManager;
+import ca.xef5000.talkGroups.database.RuntimeStateSnapshot;
+import ca.xef5000.talkGroups.database.ShutdownCoordinator;
 import ca.xef5000.talkGroups.gui.GUIManager;
+import ca.xef5000.talkGroups.listener.ChatListener;
 import ca.xef5000.talkGroups.listener.PlayerListener;
+import ca.xef5000.talkGroups.listener.ProximityListener;
+import ca.xef5000.talkGroups.listener.TabCompleteListener;
+import ca.xef5000.talkGroups.manager.EphemeralChannelManager;
+import ca.xef5000.talkGroups.manager.InboxManager;
+import ca.xef5000.talkGroups.manager.PermissionCache;
 import ca.xef5000.talkGroups.manager.PlayerDataManager;
+import ca.xef5000.talkGroups.metrics.MetricsDumper;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.metrics.PrometheusExporter;
+import ca.xef5000.talkGroups.metrics.TraceWriter;
+import ca.xef5000.talkGroups.metrics.Tracer;
 import ca.xef5000.talkGroups.model.TalkGroup;
 import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 /**
@@ -23,19 +58,45 @@ import java.util.logging.Level;
  */
 public final class TalkGroups extends JavaPlugin {
 
+    private MetricsRegistry metrics;
+    private MetricsDumper metricsDumper;
+    private PrometheusExporter prometheusExporter;
+    private Tracer tracer;
     private ConfigManager configManager;
     private DatabaseManager databaseManager;
     private PlayerDataManager playerDataManager;
+    private RuntimeStateSnapshot runtimeStateSnapshot;
+    private PermissionCache permissionCache;
+    private MessageFormatter messageFormatter;
+    private FanOut fanOut;
+    private ProximityIndex proximityIndex;
+    private MentionIndex mentionIndex;
+    private EphemeralChannelManager ephemeralChannels;
+    private InboxManager inboxManager;
+    private ChannelSender channelSender;
+    private ChatRouter chatRouter;
+    private TalkGroupsAPI api;
+    private AsyncExecutor asyncExecutor;
     private GUIManager guiManager;
+    private ConfigWatcher configWatcher;
+    private TalkGroupCommand mainCommand;
+    private final Map<String, RegisteredAlias> aliasCommands = new HashMap<>();
 
     @Override
     public void onEnable() {
         getLogger().info("Enabling TalkGroups v" + getDescription().getVersion());
 
         try {
+            // Metrics first, so every manager can look up its instruments
+            metrics = new MetricsRegistry();
+
             // Initialize configuration
             configManager = new ConfigManager(this);
             configManager.loadConfig();
+            messageFormatter = new MessageFormatter(configManager);
+            tracer = createTracer();
+            fanOut = createFanOut();
+            asyncExecutor = createAsyncExecutor();
 
             // Initialize database
             databaseManager = new DatabaseManager(this);
@@ -43,16 +104,44 @@ public final class TalkGroups extends JavaPlugin {
 
             // Initialize managers
             playerDataManager = new PlayerDataManager(this, databaseManager);
+            runtimeStateSnapshot = createRuntimeStateSnapshot();
+            permissionCache = new PermissionCache(this,
+                    configManager.getConfig().getInt("settings.permission-cache.refresh-seconds", 30));
             guiManager = new GUIManager(this);
+            proximityIndex = new ProximityIndex();
+            mentionIndex = new MentionIndex();
+            ephemeralChannels = new EphemeralChannelManager(this);
+            inboxManager = new InboxManager(this, databaseManager);
+            channelSender = new ChannelSender(this);
+            chatRouter = new ChatRouter();
 
             // Register commands
             registerCommands();
 
             // Register listeners
             registerListeners();
+            channelSender.getFloodGuard().start();
+            channelSender.getOutboundQueue().start();
+            inboxManager.start();
+            if (runtimeStateSnapshot != null) {
+                runtimeStateSnapshot.start(configManager.getConfig().getInt("settings.snapshot.interval-seconds", 60));
+            }
+
+            // Let other plugins send without dispatching commands
+            api = new TalkGroupsService(this);
+            getServer().getServicesManager().register(TalkGroupsAPI.class, api, this, ServicePriority.Normal);
+
+            // Watch configuration files for changes
+            startConfigWatcher();
+
+            // Periodically dump metrics to disk
+            startMetricsDumper();
+            startPrometheusExporter();
 
             // Load data for online players (in case of reload)
             Bukkit.getOnlinePlayers().forEach(playerDataManager::loadPlayerData);
+            Bukkit.getOnlinePlayers().forEach(proximityIndex::track);
+            Bukkit.getOnlinePlayers().forEach(mentionIndex::add);
 
             getLogger().info("TalkGroups enabled successfully!");
         } catch (Exception e) {
@@ -66,22 +155,78 @@ public final class TalkGroups extends JavaPlugin {
         getLogger().info("Disabling TalkGroups...");
 
         try {
+            // Stop accepting sends from other plugins
+            getServer().getServicesManager().unregisterAll(this);
+
+            // Stop watching configuration files
+            if (configWatcher != null) {
+                configWatcher.stop();
+            }
+
+            // Stop serving metrics
+            if (prometheusExporter != null) {
+                prometheusExporter.stop();
+            }
+
+            // Write a final metrics dump
+            if (metricsDumper != null) {
+                metricsDumper.stop();
+            }
+
+            // Drop repeat counts still waiting to be sent and send queued channel lines
+            if (channelSender != null) {
+                channelSender.getFloodGuard().stop();
+                channelSender.getOutboundQueue().stop();
+            }
+
+            // Disband parties and other runtime channels
+            if (ephemeralChannels != null) {
+                ephemeralChannels.clear();
+            }
+
             // Close all GUIs
             if (guiManager != null) {
                 guiManager.closeAll();
             }
 
-            // Save all player data
+            // Store messages queued for offline members before the final save
+            CompletableFuture<?> inboxWrites = inboxManager != null
+                    ? inboxManager.stop() : CompletableFuture.completedFuture(null);
+
+            // Keep cooldowns and missed message counts for the next start
+            if (runtimeStateSnapshot != null) {
+                runtimeStateSnapshot.stop();
+            }
+
+            // Save all player data in one bounded transaction, then close the database
             if (playerDataManager != null) {
-                playerDataManager.saveAll().join();
+                long timeout = configManager.getConfig().getLong("settings.shutdown.timeout-ms", 5000L);
+                new ShutdownCoordinator(getLogger(), databaseManager, playerDataManager, asyncExecutor,
+                        inboxWrites).shutdown(timeout);
                 playerDataManager.clearCache();
+            } else {
+                // Enabling failed before any player data could exist
+                if (asyncExecutor != null) {
+                    asyncExecutor.shutdown(0L);
+                }
+                if (databaseManager != null) {
+                    databaseManager.close();
+                }
+            }
+
+            // Flush pending slow-operation traces
+            if (tracer != null) {
+                tracer.stop();
             }
 
-            // Close database connection
-            if (databaseManager != null) {
-                databaseManager.close();
+            // Stop parallel fan-out threads
+            if (fanOut != null) {
+                fanOut.shutdown();
             }
 
+            // Remove alias commands so they don't linger in the command map
+            unregisterAliasCommands();
+
             getLogger().info("TalkGroups disabled successfully!");
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Error during plugin shutdown", e);
@@ -93,7 +238,7 @@ public final class TalkGroups extends JavaPlugin {
      */
     private void registerCommands() {
         // Register main command
-        TalkGroupCommand mainCommand = new TalkGroupCommand(this);
+        mainCommand = new TalkGroupCommand(this);
         PluginCommand tgCommand = getCommand("talkgroups");
         if (tgCommand != null) {
             tgCommand.setExecutor(mainCommand);
@@ -109,40 +254,300 @@ public final class TalkGroups extends JavaPlugin {
      */
     private void registerAliasCommands() {
         for (TalkGroup group : configManager.getAllTalkGroups().values()) {
-            String alias = group.getAlias();
+            registerAliasCommand(group);
+        }
+    }
+
+    /**
+     * Registers the alias command of a single TalkGroup.
+     *
+     * @param group The TalkGroup
+     */
+    private void registerAliasCommand(TalkGroup group) {
+        String alias = group.getAlias();
+
+        try {
+            // Register command dynamically
+            CommandMap commandMap = getServer().getCommandMap();
+            AliasCommand aliasCommand = new AliasCommand(this, group);
+
+            Command command = new Command(alias) {
+                @Override
+                public boolean execute(CommandSender sender, String commandLabel, String[] args) {
+                    return aliasCommand.onCommand(sender, this, commandLabel, args);
+                }
+            };
+
+            command.setDescription("Send a message to the " + group.getName() + " channel");
+            command.setUsage("/<command> <message>");
+            command.setPermission(group.getPermission());
+
+            commandMap.register("talkgroups", command);
+            aliasCommands.put(group.getId(), new RegisteredAlias(command, aliasCommand));
+
+            getLogger().info("Registered alias command: /" + alias);
+        } catch (Exception e) {
+            getLogger().log(Level.WARNING, "Failed to register alias command: /" + alias, e);
+        }
+    }
+
+    /**
+     * Removes the alias command of a TalkGroup from the server's command map,
+     * including its "talkgroups:" namespaced label.
+     *
+     * @param groupId The TalkGroup ID
+     */
+    private void unregisterAliasCommand(String groupId) {
+        RegisteredAlias registered = aliasCommands.remove(groupId);
+        if (registered == null) {
+            return;
+        }
+
+        // Stale references to the command must not reach the old channel
+        registered.executor().unbind();
+
+        Command command = registered.command();
+        CommandMap commandMap = getServer().getCommandMap();
+        command.unregister(commandMap);
+        commandMap.getKnownCommands().values().removeIf(known -> known == command);
+
+        getLogger().info("Unregistered alias command: /" + command.getName());
+    }
+
+    /**
+     * Removes every alias command registered by this plugin.
+     */
+    private void unregisterAliasCommands() {
+        for (String groupId : aliasCommands.keySet().toArray(new String[0])) {
+            unregisterAliasCommand(groupId);
+        }
+    }
+
+    /**
+     * Reloads config.yml and messages.yml.
+     * Files are parsed off the main thread; only the TalkGroups that were added,
+     * removed or changed are then applied on the main thread.
+     *
+     * @return CompletableFuture containing the applied changes, completed on the main thread
+     */
+    public CompletableFuture<TalkGroupDiff> reloadConfiguration() {
+        CompletableFuture<TalkGroupDiff> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+
+        configManager.parseAsync().whenComplete((snapshot, error) -> {
+            if (!isEnabled()) {
+                result.cancel(false);
+                return;
+            }
 
             try {
-                // Register command dynamically
-                org.bukkit.command.CommandMap commandMap = getServer().getCommandMap();
-                AliasCommand aliasCommand = new AliasCommand(this, alias);
-
-                org.bukkit.command.Command command = new org.bukkit.command.Command(alias) {
-                    @Override
-                    public boolean execute(org.bukkit.command.CommandSender sender,
-                                         String commandLabel,
-                                         String[] args) {
-                        return aliasCommand.onCommand(sender, this, commandLabel, args);
+                Bukkit.getScheduler().runTask(this, () -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                        return;
                     }
-                };
 
-                command.setDescription("Send a message to the " + group.getName() + " channel");
-                command.setUsage("/<command> <message>");
-                command.setPermission(group.getPermission());
+                    TalkGroupDiff diff = configManager.apply(snapshot);
+                    applyTalkGroupDiff(diff);
+                    permissionCache.invalidateAll();
+                    messageFormatter.onReload(diff);
+                    guiManager.onReload(diff);
+                    mainCommand.getPartyCommand().reload();
+                    channelSender.reload();
+                    inboxManager.reload();
+                    inboxManager.retainMembers();
+                    metrics.timer(MetricsRegistry.CONFIG_RELOAD).recordSince(start);
+                    result.complete(diff);
+                });
+            } catch (RuntimeException e) {
+                // Plugin got disabled while the files were being parsed
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Brings the registered alias commands in line with a reload.
+     *
+     * @param diff The changes produced by the reload
+     */
+    private void applyTalkGroupDiff(TalkGroupDiff diff) {
+        if (diff.isEmpty()) {
+            return;
+        }
 
-                commandMap.register("talkgroups", command);
+        for (TalkGroup group : diff.getRemoved()) {
+            unregisterAliasCommand(group.getId());
+        }
+
+        for (Map.Entry<TalkGroup, TalkGroup> entry : diff.getChanged().entrySet()) {
+            TalkGroup previous = entry.getKey();
+            TalkGroup updated = entry.getValue();
+            RegisteredAlias registered = aliasCommands.get(updated.getId());
 
-                getLogger().info("Registered alias command: /" + alias);
-            } catch (Exception e) {
-                getLogger().log(Level.WARNING, "Failed to register alias command: /" + alias, e);
+            if (registered != null && previous.getAlias().equalsIgnoreCase(updated.getAlias())) {
+                registered.command().setDescription("Send a message to the " + updated.getName() + " channel");
+                registered.command().setPermission(updated.getPermission());
+                registered.executor().bind(updated);
+            } else {
+                unregisterAliasCommand(previous.getId());
+                registerAliasCommand(updated);
             }
         }
+
+        for (TalkGroup group : diff.getAdded()) {
+            registerAliasCommand(group);
+        }
+
+        // Resend command trees so clients see added and removed aliases
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.updateCommands();
+        }
+
+        getLogger().info("Applied TalkGroup changes (" + diff + ")");
     }
 
     /**
-     * Re-registers all commands (used after config reload).
+     * Starts the configuration file watcher if enabled in config.yml.
      */
-    public void reregisterCommands() {
-        registerAliasCommands();
+    private void startConfigWatcher() {
+        if (!configManager.getConfig().getBoolean("settings.auto-reload.enabled", true)) {
+            return;
+        }
+
+        long debounce = configManager.getConfig().getLong("settings.auto-reload.debounce-ms", 500L);
+        configWatcher = new ConfigWatcher(this, debounce);
+
+        try {
+            configWatcher.start();
+        } catch (IOException e) {
+            configWatcher = null;
+            getLogger().log(Level.WARNING, "Failed to watch configuration files, use /tg reload instead", e);
+        }
+    }
+
+    /**
+     * Creates the channel fan-out, parallel only if enabled in config.yml.
+     *
+     * @return The fan-out
+     */
+    private FanOut createFanOut() {
+        if (!configManager.getConfig().getBoolean("settings.fan-out.parallel", false)) {
+            return FanOut.serial();
+        }
+
+        int parallelism = configManager.getConfig().getInt("settings.fan-out.parallelism", 0);
+        if (parallelism <= 0) {
+            parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+        int threshold = configManager.getConfig().getInt("settings.fan-out.threshold", 512);
+        int chunkSize = configManager.getConfig().getInt("settings.fan-out.chunk-size", 128);
+
+        getLogger().info("Parallel fan-out enabled for channels with " + threshold + "+ recipients ("
+                + parallelism + " threads)");
+        return new FanOut(parallelism, threshold, chunkSize);
+    }
+
+    /**
+     * Creates the executor for database and other blocking background work.
+     *
+     * @return The executor
+     */
+    private AsyncExecutor createAsyncExecutor() {
+        String mode = configManager.getConfig().getString("settings.async.executor", "auto");
+        AsyncExecutor.Mode executorMode = AsyncExecutor.parseMode(mode);
+        if (executorMode == null) {
+            getLogger().warning("Unknown async executor '" + mode + "', using auto");
+            executorMode = AsyncExecutor.Mode.AUTO;
+        }
+
+        AsyncExecutor executor = AsyncExecutor.create(executorMode,
+                configManager.getConfig().getInt("settings.async.threads", 2), getLogger());
+        getLogger().info("Running background tasks on " + executor.getDescription());
+        return executor;
+    }
+
+    /**
+     * Creates the runtime state snapshot and maps the one left by the last
+     * run, if enabled in config.yml.
+     *
+     * @return The snapshot, or null if disabled
+     */
+    private RuntimeStateSnapshot createRuntimeStateSnapshot() {
+        if (!configManager.getConfig().getBoolean("settings.snapshot.enabled", true)) {
+            return null;
+        }
+
+        RuntimeStateSnapshot snapshot = new RuntimeStateSnapshot(this,
+                getDataFolder().toPath().resolve("runtime-state.bin"),
+                configManager.getConfig().getInt("settings.snapshot.max-age-hours", 24));
+        snapshot.open();
+        return snapshot;
+    }
+
+    /**
+     * Creates the slow-operation tracer, enabled only if configured in config.yml.
+     *
+     * @return The tracer
+     */
+    private Tracer createTracer() {
+        if (!configManager.getConfig().getBoolean("settings.tracing.enabled", false)) {
+            return Tracer.disabled();
+        }
+
+        double thresholdMs = configManager.getConfig().getDouble("settings.tracing.threshold-ms", 5.0D);
+        long maxBytes = configManager.getConfig().getLong("settings.tracing.max-file-kb", 1024L) * 1024L;
+        int maxFiles = configManager.getConfig().getInt("settings.tracing.max-files", 5);
+
+        TraceWriter writer = new TraceWriter(getLogger(), getDataFolder().toPath().resolve("traces").resolve("trace.log"),
+                maxBytes, maxFiles, metrics.counter(MetricsRegistry.TRACE_DROPPED));
+        writer.start();
+
+        getLogger().info("Tracing operations slower than " + thresholdMs + "ms to traces/trace.log");
+        return new Tracer(writer, (long) (thresholdMs * 1_000_000.0D));
+    }
+
+    /**
+     * Starts the periodic metrics dump if enabled in config.yml.
+     */
+    private void startMetricsDumper() {
+        if (!configManager.getConfig().getBoolean("settings.metrics.dump.enabled", false)) {
+            return;
+        }
+
+        String format = configManager.getConfig().getString("settings.metrics.dump.format", "json");
+        MetricsDumper.Format dumpFormat;
+        try {
+            dumpFormat = MetricsDumper.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            getLogger().warning("Unknown metrics dump format '" + format + "', using json");
+            dumpFormat = MetricsDumper.Format.JSON;
+        }
+
+        metricsDumper = new MetricsDumper(this, metrics, dumpFormat);
+        metricsDumper.start(configManager.getConfig().getInt("settings.metrics.dump.interval-seconds", 300));
+    }
+
+    /**
+     * Starts the Prometheus metrics endpoint if enabled in config.yml.
+     */
+    private void startPrometheusExporter() {
+        if (!configManager.getConfig().getBoolean("settings.metrics.prometheus.enabled", false)) {
+            return;
+        }
+
+        String host = configManager.getConfig().getString("settings.metrics.prometheus.bind-address", "127.0.0.1");
+        int port = configManager.getConfig().getInt("settings.metrics.prometheus.port", 9464);
+        prometheusExporter = new PrometheusExporter(this, metrics, new InetSocketAddress(host, port));
+
+        try {
+            prometheusExporter.start();
+        } catch (IOException e) {
+            prometheusExporter = null;
+            getLogger().log(Level.WARNING, "Failed to start Prometheus endpoint on " + host + ":" + port, e);
+        }
     }
 
     /**
@@ -151,6 +556,131 @@ public final class TalkGroups extends JavaPlugin {
     private void registerListeners() {
         getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
         getServer().getPluginManager().registerEvents(guiManager, this);
+        getServer().getPluginManager().registerEvents(new ProximityListener(proximityIndex), this);
+
+        // Complete /tg off the main thread where Paper supports it
+        try {
+            Class.forName("com.destroystokyo.paper.event.server.AsyncTabCompleteEvent");
+            getServer().getPluginManager().registerEvents(new TabCompleteListener(mainCommand), this);
+        } catch (ClassNotFoundException e) {
+            getLogger().info("AsyncTabCompleteEvent not available, using synchronous tab completion");
+        }
+
+        // Route focused and quick-prefixed chat, which needs Paper's async chat event
+        try {
+            Class.forName("io.papermc.paper.event.player.AsyncChatEvent");
+            getServer().getPluginManager().registerEvents(new ChatListener(this, chatRouter), this);
+        } catch (ClassNotFoundException e) {
+            getLogger().info("AsyncChatEvent not available, focused chat and quick prefixes are disabled");
+        }
+    }
+
+    /**
+     * Gets the MetricsRegistry instance.
+     *
+     * @return The MetricsRegistry
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the FanOut instance.
+     *
+     * @return The FanOut
+     */
+    public FanOut getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * Gets the /tg command handler.
+     *
+     * @return The TalkGroupCommand
+     */
+    public TalkGroupCommand getMainCommand() {
+        return mainCommand;
+    }
+
+    /**
+     * Gets the ChannelSender instance.
+     *
+     * @return The ChannelSender
+     */
+    public ChannelSender getChannelSender() {
+        return channelSender;
+    }
+
+    /**
+     * Gets the API other plugins use to send messages.
+     *
+     * @return The TalkGroupsAPI, also registered as a service
+     */
+    public TalkGroupsAPI getAPI() {
+        return api;
+    }
+
+    /**
+     * Gets the ChatRouter instance.
+     *
+     * @return The ChatRouter
+     */
+    public ChatRouter getChatRouter() {
+        return chatRouter;
+    }
+
+    /**
+     * Gets the EphemeralChannelManager instance.
+     *
+     * @return The EphemeralChannelManager
+     */
+    public EphemeralChannelManager getEphemeralChannels() {
+        return ephemeralChannels;
+    }
+
+    /**
+     * Gets the InboxManager instance.
+     *
+     * @return The InboxManager
+     */
+    public InboxManager getInboxManager() {
+        return inboxManager;
+    }
+
+    /**
+     * Gets the ProximityIndex instance.
+     *
+     * @return The ProximityIndex
+     */
+    public ProximityIndex getProximityIndex() {
+        return proximityIndex;
+    }
+
+    /**
+     * Gets the MentionIndex instance.
+     *
+     * @return The MentionIndex of online player names
+     */
+    public MentionIndex getMentionIndex() {
+        return mentionIndex;
+    }
+
+    /**
+     * Gets the executor for blocking background work.
+     *
+     * @return The AsyncExecutor
+     */
+    public AsyncExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Gets the Tracer instance.
+     *
+     * @return The Tracer, disabled unless tracing is configured
+     */
+    public Tracer getTracer() {
+        return tracer;
     }
 
     /**
@@ -180,6 +710,33 @@ public final class TalkGroups extends JavaPlugin {
         return playerDataManager;
     }
 
+    /**
+     * Gets the RuntimeStateSnapshot instance.
+     *
+     * @return The RuntimeStateSnapshot, or null if disabled
+     */
+    public RuntimeStateSnapshot getRuntimeStateSnapshot() {
+        return runtimeStateSnapshot;
+    }
+
+    /**
+     * Gets the PermissionCache instance.
+     *
+     * @return The PermissionCache
+     */
+    public PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    /**
+     * Gets the MessageFormatter instance.
+     *
+     * @return The MessageFormatter
+     */
+    public MessageFormatter getMessageFormatter() {
+        return messageFormatter;
+    }
+
     /**
      * Gets the GUIManager instance.
      *
@@ -188,4 +745,11 @@ public final class TalkGroups extends JavaPlugin {
     public GUIManager getGUIManager() {
         return guiManager;
     }
+
+    /**
+     * An alias command registered in the command map, together with the
+     * executor bound to its TalkGroup.
+     */
+    private record RegisteredAlias(Command command, AliasCommand executor) {
+    }
 }
@@ -0,0 +1,77 @@
+package ca.xef5000.talkGroups.api;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collection;
+
+/**
+ * Lets other plugins send messages to TalkGroups without dispatching alias
+ * commands. Registered with Bukkit's services manager while TalkGroups is
+ * enabled:
+ *
+ * <pre>{@code
+ * TalkGroupsAPI api = Bukkit.getServicesManager().load(TalkGroupsAPI.class);
+ * api.send("staff", Bukkit.getConsoleSender(), "Possible fly hack: Steve");
+ * }</pre>
+ *
+ * Messages go through the same checks as the alias commands: access,
+ * worlds, cooldowns, filters, flood limits and mutes, and fire
+ * {@link ca.xef5000.talkGroups.api.event.TalkGroupPreSendEvent} and
+ * {@link ca.xef5000.talkGroups.api.event.TalkGroupPostSendEvent}. Rejected
+ * messages are explained to the sender as usual. The methods can be called
+ * from any thread; off the main thread the send is scheduled onto it.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public interface TalkGroupsAPI {
+
+    /**
+     * Outcome of a send.
+     */
+    enum SendResult {
+        /** The message was sent. */
+        SENT,
+        /** Called off the main thread; the message will be sent on the next tick. */
+        QUEUED,
+        /** No TalkGroup has this ID. */
+        UNKNOWN_CHANNEL,
+        /**
+         * The message was rejected by a check or cancelled by a listener, or
+         * was sent off the main thread while TalkGroups is disabled.
+         */
+        REJECTED
+    }
+
+    /**
+     * Gets a TalkGroup.
+     *
+     * @param channelId The TalkGroup ID
+     * @return The TalkGroup, or null if there is none with this ID
+     */
+    TalkGroup getTalkGroup(String channelId);
+
+    /**
+     * Sends a message to a TalkGroup.
+     *
+     * @param channelId The TalkGroup ID
+     * @param sender The sender, such as the console or a player
+     * @param message The message, with &amp; color codes if the sender may use colors
+     * @return Whether the message was sent
+     */
+    SendResult send(String channelId, CommandSender sender, String message);
+
+    /**
+     * Sends several messages from one sender to a TalkGroup, in order. The
+     * TalkGroup is looked up once, and off the main thread all messages are
+     * scheduled as one task. Access and the channel cooldown are checked once
+     * for the whole batch, and the cooldown starts after its last message.
+     *
+     * @param channelId The TalkGroup ID
+     * @param sender The sender, such as the console or a player
+     * @param messages The messages
+     * @return SENT if every message was sent, REJECTED if any was not
+     */
+    SendResult sendBatch(String channelId, CommandSender sender, Collection<String> messages);
+}
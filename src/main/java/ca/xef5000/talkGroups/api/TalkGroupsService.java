@@ -0,0 +1,91 @@
+package ca.xef5000.talkGroups.api;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.chat.ChannelSender;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.IllegalPluginAccessException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@link TalkGroupsAPI} service, sending through the plugin's
+ * {@link ChannelSender}.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class TalkGroupsService implements TalkGroupsAPI {
+
+    private final TalkGroups plugin;
+
+    /**
+     * Creates a new TalkGroupsService instance.
+     *
+     * @param plugin The plugin instance
+     */
+    public TalkGroupsService(TalkGroups plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public TalkGroup getTalkGroup(String channelId) {
+        return plugin.getConfigManager().getTalkGroup(channelId);
+    }
+
+    @Override
+    public SendResult send(String channelId, CommandSender sender, String message) {
+        Objects.requireNonNull(sender, "sender");
+        Objects.requireNonNull(message, "message");
+
+        TalkGroup group = getTalkGroup(channelId);
+        if (group == null) {
+            return SendResult.UNKNOWN_CHANNEL;
+        }
+        if (!Bukkit.isPrimaryThread()) {
+            // Nothing can be scheduled once the plugin is disabling
+            if (!plugin.isEnabled()) {
+                return SendResult.REJECTED;
+            }
+            try {
+                Bukkit.getScheduler().runTask(plugin, () -> send(channelId, sender, message));
+            } catch (IllegalPluginAccessException e) {
+                // The plugin started disabling after the check above
+                return SendResult.REJECTED;
+            }
+            return SendResult.QUEUED;
+        }
+
+        return plugin.getChannelSender().send(sender, group, message) ? SendResult.SENT : SendResult.REJECTED;
+    }
+
+    @Override
+    public SendResult sendBatch(String channelId, CommandSender sender, Collection<String> messages) {
+        Objects.requireNonNull(sender, "sender");
+
+        TalkGroup group = getTalkGroup(channelId);
+        if (group == null) {
+            return SendResult.UNKNOWN_CHANNEL;
+        }
+        if (!Bukkit.isPrimaryThread()) {
+            // Nothing can be scheduled once the plugin is disabling
+            if (!plugin.isEnabled()) {
+                return SendResult.REJECTED;
+            }
+            // Copy, the caller may reuse the collection
+            List<String> copy = List.copyOf(messages);
+            try {
+                Bukkit.getScheduler().runTask(plugin, () -> sendBatch(channelId, sender, copy));
+            } catch (IllegalPluginAccessException e) {
+                // The plugin started disabling after the check above
+                return SendResult.REJECTED;
+            }
+            return SendResult.QUEUED;
+        }
+
+        return plugin.getChannelSender().sendBatch(sender, group, messages) ? SendResult.SENT : SendResult.REJECTED;
+    }
+}
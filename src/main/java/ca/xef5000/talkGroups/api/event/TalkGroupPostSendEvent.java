@@ -0,0 +1,103 @@
+package ca.xef5000.talkGroups.api.event;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread after a message was delivered to a TalkGroup,
+ * for example to log or relay it. Only created while at least one listener
+ * is registered.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class TalkGroupPostSendEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final TalkGroup group;
+    private final CommandSender sender;
+    private final String message;
+    private final String line;
+    private final int recipients;
+
+    /**
+     * Creates a new TalkGroupPostSendEvent instance.
+     *
+     * @param group The TalkGroup
+     * @param sender The sender
+     * @param message The message content, as filtered
+     * @param line The rendered channel line
+     * @param recipients The number of players the message was delivered to
+     */
+    public TalkGroupPostSendEvent(TalkGroup group, CommandSender sender, String message, String line,
+                                  int recipients) {
+        this.group = group;
+        this.sender = sender;
+        this.message = message;
+        this.line = line;
+        this.recipients = recipients;
+    }
+
+    /**
+     * Gets the TalkGroup the message was sent to.
+     *
+     * @return The TalkGroup
+     */
+    public TalkGroup getTalkGroup() {
+        return group;
+    }
+
+    /**
+     * Gets the sender of the message.
+     *
+     * @return The player, console or other sender
+     */
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Gets the message content as it was sent, after filtering.
+     *
+     * @return The message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the channel line the recipients saw, with prefix, name and colors.
+     *
+     * @return The rendered line
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the number of players the message was delivered to, not counting
+     * players who muted the channel.
+     *
+     * @return The recipient count
+     */
+    public int getRecipients() {
+        return recipients;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    /**
+     * Gets the handlers of this event.
+     *
+     * @return The HandlerList
+     */
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
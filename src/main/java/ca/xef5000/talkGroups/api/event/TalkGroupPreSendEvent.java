@@ -0,0 +1,101 @@
+package ca.xef5000.talkGroups.api.event;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.Objects;
+
+/**
+ * Called on the main thread before a message is sent to a TalkGroup, after
+ * the sender's access, world and cooldown were checked and before the
+ * message is formatted and filtered. Listeners can change or cancel the
+ * message. Only created while at least one listener is registered.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class TalkGroupPreSendEvent extends Event implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final TalkGroup group;
+    private final CommandSender sender;
+    private String message;
+    private boolean cancelled;
+
+    /**
+     * Creates a new TalkGroupPreSendEvent instance.
+     *
+     * @param group The TalkGroup
+     * @param sender The sender
+     * @param message The message as typed
+     */
+    public TalkGroupPreSendEvent(TalkGroup group, CommandSender sender, String message) {
+        this.group = group;
+        this.sender = sender;
+        this.message = message;
+    }
+
+    /**
+     * Gets the TalkGroup the message is sent to.
+     *
+     * @return The TalkGroup
+     */
+    public TalkGroup getTalkGroup() {
+        return group;
+    }
+
+    /**
+     * Gets the sender of the message.
+     *
+     * @return The player, console or other sender
+     */
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Gets the message, before color codes are applied.
+     *
+     * @return The message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Replaces the message.
+     *
+     * @param message The new message
+     */
+    public void setMessage(String message) {
+        this.message = Objects.requireNonNull(message, "message");
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    /**
+     * Gets the handlers of this event.
+     *
+     * @return The HandlerList
+     */
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,87 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The channel.format template compiled for one TalkGroup.
+ * Prefix and suffix are substituted and color codes translated once, leaving
+ * only the player name and message to be filled in per message.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public final class ChannelFormat {
+
+    static final String PLAYER_PLACEHOLDER = "{player}";
+    static final String MESSAGE_PLACEHOLDER = "{message}";
+
+    /**
+     * Segment kinds; literal segments are stored as their text.
+     */
+    static final Object PLAYER = new Object();
+    static final Object MESSAGE = new Object();
+
+    private final Object[] segments;
+
+    private ChannelFormat(Object[] segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Compiles a channel.format template for a TalkGroup.
+     *
+     * @param template The raw template from messages.yml
+     * @param group The TalkGroup
+     * @return The compiled format
+     */
+    public static ChannelFormat compile(String template, TalkGroup group) {
+        String format = template
+                .replace("{prefix}", group.getPrefix())
+                .replace("{suffix}", group.getSuffix());
+
+        List<Object> segments = new ArrayList<>();
+        int position = 0;
+
+        while (position < format.length()) {
+            int player = format.indexOf(PLAYER_PLACEHOLDER, position);
+            int message = format.indexOf(MESSAGE_PLACEHOLDER, position);
+            int next = player < 0 ? message : message < 0 ? player : Math.min(player, message);
+
+            if (next < 0) {
+                segments.add(translate(format.substring(position)));
+                break;
+            }
+
+            if (next > position) {
+                segments.add(translate(format.substring(position, next)));
+            }
+
+            if (next == player) {
+                segments.add(PLAYER);
+                position = next + PLAYER_PLACEHOLDER.length();
+            } else {
+                segments.add(MESSAGE);
+                position = next + MESSAGE_PLACEHOLDER.length();
+            }
+        }
+
+        return new ChannelFormat(segments.toArray());
+    }
+
+    /**
+     * Gets the compiled segments: literal strings, {@link #PLAYER} or {@link #MESSAGE}.
+     *
+     * @return The segments, in order
+     */
+    Object[] segments() {
+        return segments;
+    }
+
+    private static String translate(String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+}
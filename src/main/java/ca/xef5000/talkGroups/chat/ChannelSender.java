@@ -0,0 +1,538 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.api.event.TalkGroupPostSendEvent;
+import ca.xef5000.talkGroups.api.event.TalkGroupPreSendEvent;
+import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.config.TalkGroupRegistry;
+import ca.xef5000.talkGroups.manager.PermissionCache;
+import ca.xef5000.talkGroups.manager.PlayerDataManager;
+import ca.xef5000.talkGroups.metrics.Histogram;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.metrics.Tracer;
+import ca.xef5000.talkGroups.model.ContentFilter;
+import ca.xef5000.talkGroups.model.PlayerData;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends a message from a player or the console to a TalkGroup: checks
+ * access, world and cooldown, renders the channel line, and delivers it
+ * with mute bookkeeping. Shared by the alias commands, focused chat and the API.
+ * Only used from the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ChannelSender {
+
+    /**
+     * Permission to be notified of messages flagged by a channel filter.
+     */
+    public static final String FILTER_NOTIFY_PERMISSION = "talkgroups.filter.notify";
+
+    private final TalkGroups plugin;
+    private final Histogram sendTimer;
+    private final Histogram fanout;
+    private final LongAdder filterBlocked;
+    private final LongAdder filterCensored;
+    private final LongAdder filterFlagged;
+    private final FloodGuard floodGuard;
+    private final OutboundQueue outboundQueue;
+    private final MentionIndex.Mentions mentions;
+    private final List<Player> mentioned;
+    private boolean mentionsEnabled;
+    private boolean bareNameMentions;
+    private String mentionHighlight;
+    private String mentionSound;
+    private float mentionVolume;
+    private float mentionPitch;
+
+    /**
+     * Creates a new ChannelSender instance.
+     *
+     * @param plugin The plugin instance
+     */
+    public ChannelSender(TalkGroups plugin) {
+        this.plugin = plugin;
+        this.sendTimer = plugin.getMetrics().timer(MetricsRegistry.CHAT_SEND);
+        this.fanout = plugin.getMetrics().histogram(MetricsRegistry.CHAT_FANOUT);
+        this.filterBlocked = plugin.getMetrics().counter(MetricsRegistry.FILTER_BLOCKED);
+        this.filterCensored = plugin.getMetrics().counter(MetricsRegistry.FILTER_CENSORED);
+        this.filterFlagged = plugin.getMetrics().counter(MetricsRegistry.FILTER_FLAGGED);
+        this.floodGuard = new FloodGuard(plugin, this);
+        this.outboundQueue = new OutboundQueue(plugin);
+        this.mentions = new MentionIndex.Mentions();
+        this.mentioned = new ArrayList<>();
+        reload();
+    }
+
+    /**
+     * Reads the mention and outbound queue settings from config.yml.
+     */
+    public void reload() {
+        if (outboundQueue != null) {
+            outboundQueue.reload();
+        }
+        ConfigManager configManager = plugin.getConfigManager();
+        this.mentionsEnabled = configManager.getConfig().getBoolean("settings.mentions.enabled", true);
+        this.bareNameMentions = configManager.getConfig().getBoolean("settings.mentions.bare-names", true);
+        this.mentionHighlight = ChatColor.translateAlternateColorCodes('&',
+                configManager.getConfig().getString("settings.mentions.highlight", "&e&l"));
+        String sound = configManager.getConfig().getString("settings.mentions.sound", "entity.experience_orb.pickup");
+        this.mentionSound = sound == null || sound.isEmpty() ? null : sound;
+        this.mentionVolume = (float) configManager.getConfig().getDouble("settings.mentions.volume", 1.0D);
+        this.mentionPitch = (float) configManager.getConfig().getDouble("settings.mentions.pitch", 1.0D);
+    }
+
+    /**
+     * Gets the flood and duplicate detection of channel messages.
+     *
+     * @return The FloodGuard
+     */
+    public FloodGuard getFloodGuard() {
+        return floodGuard;
+    }
+
+    /**
+     * Gets the queue delivering channel lines by priority within the tick budget.
+     *
+     * @return The OutboundQueue
+     */
+    public OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    /**
+     * Sends the message made up of command arguments.
+     *
+     * @param sender The sender
+     * @param group The TalkGroup
+     * @param args The command arguments
+     * @param offset Index of the first argument that belongs to the message
+     * @return true if the message was sent, false if it was rejected or cancelled
+     */
+    public boolean send(CommandSender sender, TalkGroup group, String[] args, int offset) {
+        return send(sender, group, args, offset, null);
+    }
+
+    /**
+     * Sends a chat message.
+     *
+     * @param sender The sender
+     * @param group The TalkGroup
+     * @param message The message
+     * @return true if the message was sent, false if it was rejected or cancelled
+     */
+    public boolean send(CommandSender sender, TalkGroup group, String message) {
+        return send(sender, group, null, 0, message);
+    }
+
+    /**
+     * Sends several chat messages from one sender, in order. Access and the
+     * cooldown are checked once before the first message and the cooldown
+     * starts after the last one, so the batch counts as a single message.
+     *
+     * @param sender The sender
+     * @param group The TalkGroup
+     * @param messages The messages
+     * @return true if every message was sent, false if any was rejected or cancelled
+     */
+    public boolean sendBatch(CommandSender sender, TalkGroup group, Collection<String> messages) {
+        if (messages.isEmpty()) {
+            return true;
+        }
+        if (!checkAccess(sender, group)) {
+            return false;
+        }
+
+        PlayerData cooldownData = resolveCooldown(sender, group);
+        if (cooldownData != null && isOnCooldown(sender, group, cooldownData)) {
+            return false;
+        }
+
+        boolean all = true;
+        boolean any = false;
+        for (String message : messages) {
+            boolean sent = send(sender, group, null, 0, message, true);
+            all &= sent;
+            any |= sent;
+        }
+
+        if (any && cooldownData != null) {
+            cooldownData.setCooldown(group.getId(), group.getCooldown());
+        }
+        return all;
+    }
+
+    private boolean send(CommandSender sender, TalkGroup group, String[] args, int offset, String text) {
+        return send(sender, group, args, offset, text, false);
+    }
+
+    /**
+     * Sends one message. A batched message skips the access and cooldown
+     * checks, which {@link #sendBatch} runs once for the whole batch.
+     */
+    private boolean send(CommandSender sender, TalkGroup group, String[] args, int offset, String text,
+                         boolean batched) {
+        ConfigManager configManager = plugin.getConfigManager();
+        PermissionCache permissionCache = plugin.getPermissionCache();
+        Tracer.Trace trace = plugin.getTracer().begin("chat", group.getId());
+
+        if (!batched && !checkAccess(sender, group)) {
+            return false;
+        }
+
+        if (trace != null) {
+            trace.detail(sender.getName());
+            trace.stage("permission");
+        }
+
+        // Check if message was provided
+        if (text == null && args.length <= offset) {
+            sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.alias.usage", "alias", group.getAlias())));
+            return false;
+        }
+
+        // Resolve cooldown state once for the whole invocation
+        PlayerData cooldownData = batched ? null : resolveCooldown(sender, group);
+        if (cooldownData != null && isOnCooldown(sender, group, cooldownData)) {
+            return false;
+        }
+
+        if (trace != null) {
+            trace.stage("cooldown");
+        }
+
+        // Let other plugins change or cancel the message, building the event only if one listens
+        if (hasListeners(TalkGroupPreSendEvent.getHandlerList())) {
+            String original = text != null ? text : String.join(" ", Arrays.asList(args).subList(offset, args.length));
+            TalkGroupPreSendEvent event = new TalkGroupPreSendEvent(group, sender, original);
+            Bukkit.getPluginManager().callEvent(event);
+            if (event.isCancelled()) {
+                return false;
+            }
+            text = event.getMessage();
+        }
+
+        // Join, sanitize and format the message in one pass
+        boolean colors = permissionCache.canUseColors(sender);
+        ChatBuffer buffer = text != null
+                ? plugin.getMessageFormatter().render(group, sender.getName(), text, colors)
+                : plugin.getMessageFormatter().render(group, sender.getName(), args, offset, colors);
+
+        if (buffer.isMessageEmpty()) {
+            sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.alias.usage", "alias", group.getAlias())));
+            return false;
+        }
+
+        if (trace != null) {
+            trace.stage("format");
+        }
+
+        // Check the message against the channel's blocked terms
+        ContentFilter filter = group.getFilter();
+        boolean flagged = false;
+        if (filter != null) {
+            switch (filter.getAction()) {
+                case BLOCK:
+                    if (buffer.matches(filter)) {
+                        filterBlocked.increment();
+                        sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                                configManager.getMessage("filter.blocked", "channel", group.getFormattedName())));
+                        return false;
+                    }
+                    break;
+
+                case CENSOR:
+                    if (buffer.censor(filter) > 0) {
+                        filterCensored.increment();
+                    }
+                    break;
+
+                case FLAG:
+                    flagged = buffer.matches(filter);
+                    break;
+
+                default:
+                    break;
+            }
+
+            if (trace != null) {
+                trace.stage("filter");
+            }
+        }
+
+        // Reject floods and collapse repeats before anything is allocated for delivery
+        if (group.hasFloodLimits()) {
+            FloodGuard.Verdict verdict = floodGuard.check(sender, group, buffer);
+            if (verdict == FloodGuard.Verdict.FLOOD) {
+                sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                        configManager.getMessage("flood.rejected", "channel", group.getFormattedName())));
+                return false;
+            }
+            if (verdict == FloodGuard.Verdict.DUPLICATE) {
+                // Counted into the repeat line sent later
+                return true;
+            }
+
+            if (trace != null) {
+                trace.stage("flood");
+            }
+        }
+
+        // Find mentioned players in one pass while the message is still in the buffer
+        MentionIndex.Mentions found = null;
+        if (mentionsEnabled) {
+            buffer.scanMentions(plugin.getMentionIndex(), bareNameMentions, mentions);
+            if (mentions.size() > 0) {
+                found = mentions;
+            }
+        }
+
+        String line = buffer.toLine();
+        String message = buffer.toMessage();
+
+        // Send the message to all players with permission
+        int recipients = sendToChannel(group, sender, line, message, found, trace);
+
+        if (hasListeners(TalkGroupPostSendEvent.getHandlerList())) {
+            Bukkit.getPluginManager().callEvent(new TalkGroupPostSendEvent(group, sender, message, line, recipients));
+        }
+
+        if (flagged) {
+            flag(group, sender, message);
+        }
+
+        // Set cooldown
+        if (cooldownData != null) {
+            cooldownData.setCooldown(group.getId(), group.getCooldown());
+        }
+
+        if (trace != null) {
+            trace.finish();
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the sender may use a TalkGroup, telling them if not.
+     */
+    private boolean checkAccess(CommandSender sender, TalkGroup group) {
+        ConfigManager configManager = plugin.getConfigManager();
+
+        // Check permission
+        if (!plugin.getPermissionCache().canAccess(sender, group)) {
+            sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.no-permission")));
+            return false;
+        }
+
+        // World-scoped channels can only be used from their worlds
+        if (sender instanceof Player player && !group.isInWorld(player.getWorld().getName())) {
+            sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.wrong-world", "channel", group.getFormattedName())));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the data holding the sender's cooldown, or null if no cooldown
+     * applies to them in this TalkGroup.
+     */
+    private PlayerData resolveCooldown(CommandSender sender, TalkGroup group) {
+        if (group.getCooldown() > 0 && sender instanceof Player player
+                && !plugin.getPermissionCache().canBypassCooldown(player)) {
+            return plugin.getPlayerDataManager().getPlayerData(player);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the sender is on cooldown in a TalkGroup, telling them
+     * how long is left if so.
+     */
+    private boolean isOnCooldown(CommandSender sender, TalkGroup group, PlayerData cooldownData) {
+        if (!cooldownData.isOnCooldown(group.getId())) {
+            return false;
+        }
+        int remaining = cooldownData.getRemainingCooldown(group.getId());
+        sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                plugin.getConfigManager().getMessage("command.cooldown", "seconds", String.valueOf(remaining))));
+        return true;
+    }
+
+    /**
+     * Sends a message to all players in the channel. Local channels only
+     * consider the players the proximity index finds in range.
+     *
+     * @param group The TalkGroup
+     * @param sender The player sending the message
+     * @param formattedMessage The rendered channel line
+     * @param message The message content
+     * @param mentions The players mentioned in the line, or null if there are none
+     * @param trace The trace of this message, or null if tracing is disabled
+     * @return The number of players the message was delivered to
+     */
+    int sendToChannel(TalkGroup group, CommandSender sender, String formattedMessage, String message,
+                       MentionIndex.Mentions mentions, Tracer.Trace trace) {
+        long start = System.nanoTime();
+        ConfigManager configManager = plugin.getConfigManager();
+        PlayerDataManager dataManager = plugin.getPlayerDataManager();
+        PermissionCache permissionCache = plugin.getPermissionCache();
+
+        // Resolve the channel index once for every recipient
+        TalkGroupRegistry registry = configManager.getRegistry();
+        int index = registry.indexOf(group.getId());
+        boolean indexed = index >= 0 && registry.get(index) == group;
+        int delivered = 0;
+        int muted = 0;
+        long notifyNanos = 0L;
+
+        // Resolve recipients and do mute bookkeeping on this thread, only sending may run in parallel
+        FanOut fanOut = plugin.getFanOut();
+        Collection<? extends Player> candidates = group.isLocal()
+                ? plugin.getProximityIndex().collect(group, sender instanceof Player player ? player.getLocation() : null)
+                : Bukkit.getOnlinePlayers();
+        Player[] recipients = fanOut.buffer(candidates.size());
+
+        for (Player player : candidates) {
+            boolean hasAccess = indexed
+                    ? permissionCache.get(player, registry).canAccess(index)
+                    : player.hasPermission(group.getPermission());
+
+            if (hasAccess) {
+                PlayerData playerData = dataManager.getPlayerData(player);
+
+                // Check if player has muted this channel
+                if (playerData.isChannelMuted(group.getId())) {
+                    muted++;
+
+                    // Increment missed messages
+                    playerData.incrementMissedMessages(group.getId());
+
+                    // Send notification if enabled
+                    if (group.isNotify() && playerData.shouldNotify(group.getId(), group.getNotifyDelay())) {
+                        long notifyStart = trace != null ? System.nanoTime() : 0L;
+                        int missedCount = playerData.getMissedMessages(group.getId());
+                        int timeSince = playerData.getTimeSinceLastNotification(group.getId());
+
+                        String notifyMessage = configManager.getMessage("channel.notification",
+                                "count", String.valueOf(missedCount),
+                                "channel", group.getFormattedName(),
+                                "time", formatTime(timeSince));
+
+                        player.sendMessage(ChatColor.translateAlternateColorCodes('&', notifyMessage));
+                        playerData.updateLastNotification(group.getId());
+
+                        if (trace != null) {
+                            notifyNanos += System.nanoTime() - notifyStart;
+                        }
+                    }
+                } else if (mentions != null && player != sender && mentions.contains(player)) {
+                    // Gets its own highlighted copy of the line
+                    mentioned.add(player);
+                } else {
+                    recipients[delivered++] = player;
+                }
+            }
+        }
+
+        // Send the message now, or once the tick budget allows
+        outboundQueue.deliver(group.getPriority(), recipients, delivered, formattedMessage);
+
+        if (!mentioned.isEmpty()) {
+            // Queued after the line above, so mentions are shed and ordered like the rest of the channel
+            String sound = mentionSound;
+            float volume = mentionVolume;
+            float pitch = mentionPitch;
+            for (int i = 0; i < mentioned.size(); i++) {
+                Player player = mentioned.get(i);
+                outboundQueue.deliver(group.getPriority(), new Player[]{player}, 1,
+                        mentions.highlight(formattedMessage, player, mentionHighlight),
+                        sound == null ? null : () -> player.playSound(player.getLocation(), sound, volume, pitch));
+            }
+            delivered += mentioned.size();
+            mentioned.clear();
+        }
+
+        // Keep the message for offline members
+        if (group.hasInbox()) {
+            plugin.getInboxManager().queue(group, sender, formattedMessage);
+        }
+
+        if (trace != null) {
+            trace.record("notify", notifyNanos);
+            trace.stage("recipients");
+        }
+
+        // Log to console
+        plugin.getLogger().info("[" + group.getId() + "] " + sender.getName() + ": " + message);
+
+        if (trace != null) {
+            trace.stage("log");
+        }
+
+        plugin.getMetrics().channel(group.getId()).recordMessage(delivered, muted);
+        fanout.record(delivered);
+        sendTimer.recordSince(start);
+        return delivered;
+    }
+
+    /**
+     * Reports a flagged message to online staff and the console.
+     *
+     * @param group The TalkGroup
+     * @param sender The sender
+     * @param message The message content
+     */
+    private void flag(TalkGroup group, CommandSender sender, String message) {
+        filterFlagged.increment();
+        String notice = ChatColor.translateAlternateColorCodes('&', plugin.getConfigManager().getMessage(
+                "filter.flagged", "player", sender.getName(), "channel", group.getFormattedName(),
+                "message", message));
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (player.hasPermission(FILTER_NOTIFY_PERMISSION)) {
+                player.sendMessage(notice);
+            }
+        }
+        plugin.getLogger().warning("Flagged message in [" + group.getId() + "] from " + sender.getName() + ": "
+                + message);
+    }
+
+    /**
+     * Checks whether any plugin listens to an event, so it is only built when needed.
+     */
+    private static boolean hasListeners(HandlerList handlers) {
+        return handlers.getRegisteredListeners().length > 0;
+    }
+
+    /**
+     * Formats time in seconds to a readable string.
+     *
+     * @param seconds The time in seconds
+     * @return The formatted time string
+     */
+    private String formatTime(int seconds) {
+        if (seconds < 60) {
+            return seconds + " second" + (seconds != 1 ? "s" : "");
+        } else {
+            int minutes = seconds / 60;
+            return minutes + " minute" + (minutes != 1 ? "s" : "");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.model.ContentFilter;
+import org.bukkit.ChatColor;
+
+/**
+ * Reusable per-thread buffer a channel line is rendered into.
+ * Joining the command arguments, trimming, stripping control characters,
+ * translating or stripping '&' color codes and inserting the result into the
+ * compiled channel format all happen in a single pass over the input, with
+ * no intermediate Strings. Filtering, fingerprinting and mention scanning
+ * read the message in place; Strings are only copied out by
+ * {@link #toLine()} and {@link #toMessage()}, for delivery and logging.
+ *
+ * <p>The buffer returned by {@link #acquire()} is only valid until the next
+ * call to {@code acquire()} on the same thread.</p>
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public final class ChatBuffer {
+
+    private static final ThreadLocal<ChatBuffer> LOCAL = ThreadLocal.withInitial(ChatBuffer::new);
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+    private int messageStart;
+    private int messageEnd;
+    private boolean hasMessage;
+
+    private ChatBuffer() {
+    }
+
+    /**
+     * Gets the calling thread's buffer, emptied.
+     *
+     * @return The buffer
+     */
+    public static ChatBuffer acquire() {
+        ChatBuffer buffer = LOCAL.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * Renders a channel line from command arguments.
+     *
+     * @param format The compiled channel format
+     * @param playerName The sender's name
+     * @param args The command arguments making up the message
+     * @param offset Index of the first argument that belongs to the message
+     * @param colors true to translate '&' color codes, false to strip them
+     * @return This buffer
+     */
+    public ChatBuffer render(ChannelFormat format, String playerName, String[] args, int offset, boolean colors) {
+        for (Object segment : format.segments()) {
+            if (segment == ChannelFormat.PLAYER) {
+                builder.append(playerName);
+            } else if (segment == ChannelFormat.MESSAGE) {
+                appendMessage(args, offset, colors);
+            } else {
+                builder.append((String) segment);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Renders a channel line from a single message string.
+     *
+     * @param format The compiled channel format
+     * @param playerName The sender's name
+     * @param message The message
+     * @param colors true to translate '&' color codes, false to strip them
+     * @return This buffer
+     */
+    public ChatBuffer render(ChannelFormat format, String playerName, String message, boolean colors) {
+        for (Object segment : format.segments()) {
+            if (segment == ChannelFormat.PLAYER) {
+                builder.append(playerName);
+            } else if (segment == ChannelFormat.MESSAGE) {
+                hasMessage = true;
+                messageStart = builder.length();
+                appendPart(message, colors);
+                trimMessageEnd();
+            } else {
+                builder.append((String) segment);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Checks if the rendered message has no visible content. A format without
+     * a {@code {message}} slot renders a fixed line, which is never empty.
+     *
+     * @return true if the message is empty after trimming
+     */
+    public boolean isMessageEmpty() {
+        return hasMessage && messageEnd <= messageStart;
+    }
+
+    /**
+     * Checks whether the message contains a blocked term.
+     *
+     * @param filter The filter
+     * @return true if a blocked term was found
+     */
+    public boolean matches(ContentFilter filter) {
+        return filter.matches(builder, messageStart, messageEnd);
+    }
+
+    /**
+     * Replaces blocked terms in the message with asterisks, in place.
+     *
+     * @param filter The filter
+     * @return The number of terms replaced
+     */
+    public int censor(ContentFilter filter) {
+        return filter.censor(builder, messageStart, messageEnd);
+    }
+
+    /**
+     * Hashes the message for duplicate detection.
+     *
+     * @return The fingerprint of the message
+     */
+    public long fingerprint() {
+        return FloodGuard.fingerprint(builder, messageStart, messageEnd);
+    }
+
+    /**
+     * Finds the players mentioned in the message.
+     *
+     * @param index The online player names
+     * @param bareNames true to also match names without '@'
+     * @param out Receives the mentions
+     */
+    public void scanMentions(MentionIndex index, boolean bareNames, MentionIndex.Mentions out) {
+        index.scan(builder, messageStart, messageEnd, bareNames, out);
+    }
+
+    /**
+     * Gets the rendered channel line.
+     *
+     * @return The line to send to recipients
+     */
+    public String toLine() {
+        return builder.toString();
+    }
+
+    /**
+     * Gets the sanitized message part of the rendered line.
+     *
+     * @return The message
+     */
+    public String toMessage() {
+        return builder.substring(messageStart, messageEnd);
+    }
+
+    /**
+     * Gets the length of the rendered line.
+     *
+     * @return The line length in chars
+     */
+    public int length() {
+        return builder.length();
+    }
+
+    private void reset() {
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            // Don't pin a huge buffer to the thread after one oversized message
+            builder = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            builder.setLength(0);
+        }
+        messageStart = 0;
+        messageEnd = 0;
+        hasMessage = false;
+    }
+
+    private void appendMessage(String[] args, int offset, boolean colors) {
+        hasMessage = true;
+        messageStart = builder.length();
+        for (int i = offset; i < args.length; i++) {
+            // Separator is dropped while the message is still empty (leading trim)
+            if (i > offset && builder.length() > messageStart) {
+                builder.append(' ');
+            }
+            appendPart(args[i], colors);
+        }
+        trimMessageEnd();
+    }
+
+    private void appendPart(String part, boolean colors) {
+        int length = part.length();
+        for (int i = 0; i < length; i++) {
+            char c = part.charAt(i);
+
+            if (c == '&' && i + 1 < length && isColorCode(part.charAt(i + 1))) {
+                if (colors) {
+                    builder.append(ChatColor.COLOR_CHAR).append(Character.toLowerCase(part.charAt(i + 1)));
+                }
+                i++;
+            } else if (c == ChatColor.COLOR_CHAR || Character.isISOControl(c)) {
+                // Never let raw section signs or control characters through
+            } else if (c != ' ' || builder.length() > messageStart) {
+                builder.append(c);
+            }
+        }
+    }
+
+    private void trimMessageEnd() {
+        int end = builder.length();
+        while (end > messageStart && builder.charAt(end - 1) == ' ') {
+            end--;
+        }
+        builder.setLength(end);
+        messageEnd = end;
+    }
+
+    private static boolean isColorCode(char c) {
+        return (c >= '0' && c <= '9')
+                || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')
+                || (c >= 'k' && c <= 'o') || (c >= 'K' && c <= 'O')
+                || c == 'r' || c == 'R' || c == 'x' || c == 'X';
+    }
+}
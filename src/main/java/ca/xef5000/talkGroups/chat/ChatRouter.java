@@ -0,0 +1,106 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.config.TalkGroupRegistry;
+import ca.xef5000.talkGroups.model.TalkGroup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Decides which TalkGroup, if any, a normal chat message belongs to. A
+ * message starting with the quick prefix of a TalkGroup the player can
+ * access goes to that TalkGroup, otherwise it goes to the player's focused
+ * TalkGroup. Safe to use from
+ * async chat events.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ChatRouter {
+
+    private final Map<UUID, String> focused;
+
+    /**
+     * Creates a new ChatRouter instance.
+     */
+    public ChatRouter() {
+        this.focused = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Sends a player's normal chat to a TalkGroup.
+     *
+     * @param playerId The player's UUID
+     * @param groupId The TalkGroup ID
+     */
+    public void focus(UUID playerId, String groupId) {
+        focused.put(playerId, groupId);
+    }
+
+    /**
+     * Sends a player's normal chat back to public chat.
+     *
+     * @param playerId The player's UUID
+     * @return true if the player had a focused TalkGroup
+     */
+    public boolean unfocus(UUID playerId) {
+        return focused.remove(playerId) != null;
+    }
+
+    /**
+     * Gets the TalkGroup a player's normal chat is sent to.
+     *
+     * @param playerId The player's UUID
+     * @return The TalkGroup ID, or null if the player chats publicly
+     */
+    public String getFocus(UUID playerId) {
+        return focused.get(playerId);
+    }
+
+    /**
+     * Finds where a chat message should go. A focus on a TalkGroup that no
+     * longer exists is dropped.
+     *
+     * @param registry The current TalkGroups
+     * @param playerId The sender's UUID
+     * @param message The plain chat message
+     * @param canAccess Whether the sender can use a TalkGroup; quick prefixes of other TalkGroups are ignored
+     * @return The route, or null if the message is public chat
+     */
+    public Route route(TalkGroupRegistry registry, UUID playerId, String message, Predicate<TalkGroup> canAccess) {
+        TalkGroup group = registry.getByQuickPrefix(message, canAccess);
+        if (group != null) {
+            return new Route(group, message.substring(group.getQuickPrefix().length()));
+        }
+
+        String groupId = focused.get(playerId);
+        if (groupId == null) {
+            return null;
+        }
+
+        group = registry.get(groupId);
+        if (group == null) {
+            focused.remove(playerId, groupId);
+            return null;
+        }
+        return new Route(group, message);
+    }
+
+    /**
+     * Removes all focuses.
+     */
+    public void clear() {
+        focused.clear();
+    }
+
+    /**
+     * A chat message bound for a TalkGroup.
+     *
+     * @param group The TalkGroup
+     * @param message The message without its quick prefix
+     */
+    public record Route(TalkGroup group, String message) {
+    }
+}
@@ -0,0 +1,144 @@
+package ca.xef5000.talkGroups.chat;
+
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Delivers a rendered channel line to a resolved list of recipients.
+ * Small recipient lists are sent in a plain loop on the calling thread;
+ * lists at or above the threshold are split into chunks and sent from a
+ * dedicated ForkJoin pool, and the caller waits until every chunk is done
+ * so message order is preserved. Only {@link Player#sendMessage(String)} runs
+ * on the pool; permission checks and mute bookkeeping stay with the caller.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class FanOut {
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final int chunkSize;
+    private final ThreadLocal<Player[]> buffers;
+
+    /**
+     * Creates a new FanOut instance.
+     *
+     * @param parallelism Pool threads, or 0 or less to always send serially
+     * @param threshold Recipient count from which delivery is parallel
+     * @param chunkSize Recipients sent by one task
+     */
+    public FanOut(int parallelism, int threshold, int chunkSize) {
+        this.pool = parallelism > 0 ? new ForkJoinPool(parallelism, FanOut::newThread, null, false) : null;
+        this.threshold = Math.max(1, threshold);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.buffers = ThreadLocal.withInitial(() -> new Player[64]);
+    }
+
+    /**
+     * Creates a FanOut that always sends on the calling thread.
+     *
+     * @return The serial FanOut
+     */
+    public static FanOut serial() {
+        return new FanOut(0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("TalkGroups-FanOut-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Gets the calling thread's recipient buffer, grown to hold at least the
+     * given number of players. Existing entries are kept when it grows.
+     *
+     * @param capacity The number of recipients to hold
+     * @return The buffer
+     */
+    public Player[] buffer(int capacity) {
+        Player[] buffer = buffers.get();
+        if (buffer.length < capacity) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+            buffers.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Sends a line to the first {@code count} players of the array and clears
+     * those entries so the buffer does not keep players reachable.
+     *
+     * @param recipients The recipients
+     * @param count The number of recipients
+     * @param line The line to send
+     */
+    public void deliver(Player[] recipients, int count, String line) {
+        if (pool != null && count >= threshold) {
+            pool.invoke(new SendTask(recipients, 0, count, line, chunkSize));
+        } else {
+            send(recipients, 0, count, line);
+        }
+    }
+
+    private static void send(Player[] recipients, int from, int to, String line) {
+        for (int i = from; i < to; i++) {
+            recipients[i].sendMessage(line);
+            recipients[i] = null;
+        }
+    }
+
+    /**
+     * Checks whether parallel delivery is enabled.
+     *
+     * @return true if a pool is available
+     */
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    /**
+     * Stops the pool threads. The FanOut must not be used afterwards.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Sends a range of recipients, splitting it in half until it fits in a chunk.
+     */
+    private static final class SendTask extends RecursiveAction {
+        private final Player[] recipients;
+        private final int from;
+        private final int to;
+        private final String line;
+        private final int chunkSize;
+
+        private SendTask(Player[] recipients, int from, int to, String line, int chunkSize) {
+            this.recipients = recipients;
+            this.from = from;
+            this.to = to;
+            this.line = line;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                send(recipients, from, to, line);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SendTask(recipients, from, middle, line, chunkSize),
+                    new SendTask(recipients, middle, to, line, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.config.TalkGroupRegistry;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects floods and collapses repeated messages per sender and channel.
+ * Each sender keeps a fixed-size history of message fingerprints and times
+ * for every channel they talk in, so a check hashes the message and scans a
+ * few array slots without allocating. A message repeating one sent within
+ * the duplicate window is held back; once the window ends a single line
+ * with the repeat count, such as "(x5)", is sent instead. Only used from
+ * the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class FloodGuard {
+
+    /**
+     * Outcome of checking a message.
+     */
+    public enum Verdict {
+        /** The message may be sent. */
+        ALLOW,
+        /** The message repeats a recent one and was collapsed into its count. */
+        DUPLICATE,
+        /** The sender is sending too fast and the message was rejected. */
+        FLOOD
+    }
+
+    private static final int HISTORY = 8;
+    private static final UUID CONSOLE = new UUID(0L, 0L);
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final TalkGroups plugin;
+    private final ChannelSender channelSender;
+    private final Map<UUID, Tracker> trackers;
+    private final List<Window> pending;
+    private final LongAdder rejected;
+    private final LongAdder collapsed;
+    private BukkitTask flushTask;
+
+    /**
+     * Creates a new FloodGuard instance.
+     *
+     * @param plugin The plugin instance
+     * @param channelSender Sends the collapsed repeat lines
+     */
+    FloodGuard(TalkGroups plugin, ChannelSender channelSender) {
+        this.plugin = plugin;
+        this.channelSender = channelSender;
+        this.trackers = new HashMap<>();
+        this.pending = new ArrayList<>();
+        this.rejected = plugin.getMetrics().counter(MetricsRegistry.FLOOD_REJECTED);
+        this.collapsed = plugin.getMetrics().counter(MetricsRegistry.FLOOD_COLLAPSED);
+    }
+
+    /**
+     * Starts sending collapsed repeat lines once their window ends.
+     */
+    public void start() {
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 10L, 10L);
+    }
+
+    /**
+     * Stops the flush timer and drops pending repeat lines.
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        pending.clear();
+        trackers.clear();
+    }
+
+    /**
+     * Checks a rendered message before it is sent and records it.
+     *
+     * @param sender The sender
+     * @param group The TalkGroup, which must have flood limits
+     * @param buffer The buffer holding the rendered message
+     * @return Whether the message may be sent
+     */
+    public Verdict check(CommandSender sender, TalkGroup group, ChatBuffer buffer) {
+        TalkGroupRegistry registry = plugin.getConfigManager().getRegistry();
+        int index = registry.indexOf(group.getId());
+        if (index < 0 || registry.get(index) != group) {
+            // Stale TalkGroup from before a reload
+            return Verdict.ALLOW;
+        }
+
+        Window window = window(sender, group, registry, index);
+        long now = System.nanoTime();
+        long hash = buffer.fingerprint();
+
+        // Flood: the limit-th most recent message is still inside the flood window. Rejected
+        // messages are not recorded, so typing while limited does not extend the lockout
+        int limit = group.getFloodMessages();
+        if (limit > 0 && window.size >= limit
+                && now - window.timeAgo(limit) < TimeUnit.SECONDS.toNanos(group.getFloodSeconds())) {
+            rejected.increment();
+            return Verdict.FLOOD;
+        }
+
+        long duplicateNanos = TimeUnit.SECONDS.toNanos(group.getDuplicateWindow());
+        if (duplicateNanos > 0L) {
+            if (window.repeats > 0 && window.repeatHash == hash && now < window.repeatUntil) {
+                window.repeats++;
+                window.record(hash, now);
+                collapsed.increment();
+                return Verdict.DUPLICATE;
+            }
+
+            long seen = window.lastSeen(hash);
+            if (seen != Long.MIN_VALUE && now - seen < duplicateNanos) {
+                if (window.repeats > 0) {
+                    // A different message is still being collapsed, send its count now
+                    emit(window);
+                } else {
+                    pending.add(window);
+                }
+                window.sender = sender;
+                window.groupId = group.getId();
+                window.line = buffer.toLine();
+                window.repeatHash = hash;
+                window.repeatUntil = seen + duplicateNanos;
+                window.repeats = 1;
+                window.record(hash, now);
+                collapsed.increment();
+                return Verdict.DUPLICATE;
+            }
+        }
+
+        window.record(hash, now);
+        return Verdict.ALLOW;
+    }
+
+    /**
+     * Sends the collapsed line of every repeat window that has ended.
+     */
+    public void flush() {
+        long now = System.nanoTime();
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            Window window = pending.get(i);
+            if (now >= window.repeatUntil) {
+                emit(window);
+                Window last = pending.remove(pending.size() - 1);
+                if (i < pending.size()) {
+                    pending.set(i, last);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets a sender's history, for example when they quit.
+     *
+     * @param playerId The player's UUID
+     */
+    public void remove(UUID playerId) {
+        trackers.remove(playerId);
+    }
+
+    private void emit(Window window) {
+        int count = window.repeats + 1;
+        CommandSender sender = window.sender;
+        String line = window.line;
+        window.repeats = 0;
+        window.sender = null;
+        window.line = null;
+
+        TalkGroup group = plugin.getConfigManager().getTalkGroup(window.groupId);
+        if (group == null || (sender instanceof Player player && !player.isOnline())) {
+            return;
+        }
+
+        String suffix = ChatColor.translateAlternateColorCodes('&', plugin.getConfigManager().getMessage(
+                "flood.collapsed", "count", String.valueOf(count)));
+        channelSender.sendToChannel(group, sender, line + suffix, "(x" + count + ")", null, null);
+    }
+
+    private Window window(CommandSender sender, TalkGroup group, TalkGroupRegistry registry, int index) {
+        UUID id = sender instanceof Player player ? player.getUniqueId() : CONSOLE;
+        Tracker tracker = trackers.get(id);
+        if (tracker == null) {
+            tracker = new Tracker();
+            trackers.put(id, tracker);
+        }
+        if (tracker.generation != registry.getGeneration() || tracker.windows.length <= index) {
+            // Channel indexes changed with a reload
+            tracker.generation = registry.getGeneration();
+            tracker.windows = new Window[registry.size()];
+        }
+
+        Window window = tracker.windows[index];
+        if (window == null) {
+            window = new Window(Math.max(HISTORY, group.getFloodMessages()));
+            tracker.windows[index] = window;
+        }
+        return window;
+    }
+
+    /**
+     * Hashes a message so that near-identical lines match: case, color
+     * codes, punctuation, spaces and repeated characters are ignored.
+     *
+     * @param text The text
+     * @param from Index of the first character
+     * @param to Index after the last character
+     * @return The 64-bit FNV-1a fingerprint
+     */
+    static long fingerprint(CharSequence text, int from, int to) {
+        long hash = FNV_OFFSET;
+        char previous = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == ChatColor.COLOR_CHAR) {
+                i++;
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            c = Character.toLowerCase(c);
+            if (c != previous) {
+                hash = (hash ^ c) * FNV_PRIME;
+                previous = c;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * A sender's windows, one per channel index of a registry generation.
+     */
+    private static final class Tracker {
+        int generation = -1;
+        Window[] windows = new Window[0];
+    }
+
+    /**
+     * Recent messages of one sender in one channel, plus the repeat being
+     * collapsed, if any.
+     */
+    private static final class Window {
+        final long[] hashes;
+        final long[] times;
+        int next;
+        int size;
+
+        CommandSender sender;
+        String groupId;
+        String line;
+        long repeatHash;
+        long repeatUntil;
+        int repeats;
+
+        Window(int capacity) {
+            this.hashes = new long[capacity];
+            this.times = new long[capacity];
+        }
+
+        void record(long hash, long time) {
+            hashes[next] = hash;
+            times[next] = time;
+            next = (next + 1) % hashes.length;
+            if (size < hashes.length) {
+                size++;
+            }
+        }
+
+        /**
+         * Gets the time of the n-th most recent message, 1 being the latest.
+         */
+        long timeAgo(int n) {
+            return times[(next - n + hashes.length) % hashes.length];
+        }
+
+        /**
+         * Gets the time a message with this fingerprint was last recorded.
+         */
+        long lastSeen(long hash) {
+            for (int n = 1; n <= size; n++) {
+                int slot = (next - n + hashes.length) % hashes.length;
+                if (hashes[slot] == hash) {
+                    return times[slot];
+                }
+            }
+            return Long.MIN_VALUE;
+        }
+    }
+}
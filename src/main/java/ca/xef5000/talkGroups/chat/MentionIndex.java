@@ -0,0 +1,333 @@
+package ca.xef5000.talkGroups.chat;
+
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+
+/**
+ * Trie of online player names for finding mentions in channel messages.
+ * Names are added on join and removed on quit, so a message is scanned
+ * once, walking the trie from the start of each word, instead of being
+ * searched for every online name. Matching ignores case. Only used from
+ * the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class MentionIndex {
+
+    // a-z, 0-9 and _, the characters allowed in player names
+    private static final int SYMBOLS = 37;
+
+    private final Node root;
+    private int size;
+
+    /**
+     * Creates a new, empty MentionIndex instance.
+     */
+    public MentionIndex() {
+        this.root = new Node();
+    }
+
+    /**
+     * Adds an online player.
+     *
+     * @param player The player
+     */
+    public void add(Player player) {
+        String name = player.getName();
+        Node node = root;
+        for (int i = 0; i < name.length(); i++) {
+            int symbol = symbol(name.charAt(i));
+            if (symbol < 0) {
+                // Not a valid player name, it can never be matched
+                return;
+            }
+            if (node.children == null) {
+                node.children = new Node[SYMBOLS];
+            }
+            Node child = node.children[symbol];
+            if (child == null) {
+                child = new Node();
+                node.children[symbol] = child;
+            }
+            node = child;
+        }
+
+        if (node.player == null) {
+            size++;
+        }
+        node.player = player;
+    }
+
+    /**
+     * Removes a player, for example when they quit.
+     *
+     * @param player The player
+     */
+    public void remove(Player player) {
+        if (remove(root, player.getName(), 0, player)) {
+            size--;
+        }
+    }
+
+    private boolean remove(Node node, String name, int depth, Player player) {
+        if (depth == name.length()) {
+            if (node.player != player) {
+                return false;
+            }
+            node.player = null;
+            return true;
+        }
+
+        int symbol = symbol(name.charAt(depth));
+        Node child = symbol < 0 || node.children == null ? null : node.children[symbol];
+        if (child == null || !remove(child, name, depth + 1, player)) {
+            return false;
+        }
+
+        // Prune the branch once nothing is left below it
+        if (child.player == null && child.isLeaf()) {
+            node.children[symbol] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of indexed players.
+     *
+     * @return The player count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all players.
+     */
+    public void clear() {
+        root.children = null;
+        size = 0;
+    }
+
+    /**
+     * Finds the players mentioned in part of a text, as "@name" or, if
+     * enabled, as a bare name. A name only counts as a whole word, and the
+     * longest online name wins. Color codes are skipped.
+     *
+     * @param text The text
+     * @param from Index of the first character to scan
+     * @param to Index after the last character to scan
+     * @param bareNames true to also match names without '@'
+     * @param out Receives the mentions; cleared first
+     */
+    public void scan(CharSequence text, int from, int to, boolean bareNames, Mentions out) {
+        out.count = 0;
+        if (size == 0) {
+            return;
+        }
+
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (c == ChatColor.COLOR_CHAR) {
+                i += 2;
+                continue;
+            }
+
+            boolean at = c == '@';
+            if (!at && (symbol(c) < 0 || !bareNames)) {
+                i++;
+                continue;
+            }
+            if (!at && !isWordStart(text, from, i)) {
+                i = skipWord(text, i, to);
+                continue;
+            }
+
+            // Walk the trie along this word, remembering the longest name that ends the word
+            int start = at ? i + 1 : i;
+            Node node = root;
+            Player found = null;
+            int end = -1;
+            int j = start;
+            while (j < to && node.children != null) {
+                int symbol = symbol(text.charAt(j));
+                if (symbol < 0) {
+                    break;
+                }
+                node = node.children[symbol];
+                if (node == null) {
+                    break;
+                }
+                j++;
+                if (node.player != null && (j == to || symbol(text.charAt(j)) < 0)) {
+                    found = node.player;
+                    end = j;
+                }
+            }
+
+            if (found != null) {
+                out.add(found, i, end);
+                i = end;
+            } else {
+                i = at ? i + 1 : skipWord(text, i, to);
+            }
+        }
+    }
+
+    private static boolean isWordStart(CharSequence text, int from, int index) {
+        if (index == from) {
+            return true;
+        }
+        if (index - 2 >= from && text.charAt(index - 2) == ChatColor.COLOR_CHAR) {
+            // Preceded by a color code
+            return true;
+        }
+        return symbol(text.charAt(index - 1)) < 0;
+    }
+
+    private static int skipWord(CharSequence text, int index, int to) {
+        int i = index + 1;
+        while (i < to && symbol(text.charAt(i)) >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + (c - '0');
+        }
+        return c == '_' ? 36 : -1;
+    }
+
+    private static final class Node {
+        Node[] children;
+        Player player;
+
+        boolean isLeaf() {
+            if (children != null) {
+                for (Node child : children) {
+                    if (child != null) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reusable result of a scan: who was mentioned and where.
+     */
+    public static final class Mentions {
+        private Player[] players = new Player[4];
+        private int[] starts = new int[4];
+        private int[] ends = new int[4];
+        private int count;
+
+        /**
+         * Gets the number of mentions found.
+         *
+         * @return The mention count
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Checks whether a player was mentioned.
+         *
+         * @param player The player
+         * @return true if the player was mentioned at least once
+         */
+        public boolean contains(Player player) {
+            for (int i = 0; i < count; i++) {
+                if (players[i] == player) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Copies a line with every mention of one player wrapped in a
+         * highlight. The colors in effect before each mention are restored
+         * after it.
+         *
+         * @param line The rendered line the scan ran on
+         * @param player The mentioned player
+         * @param highlight The color codes to highlight with
+         * @return The highlighted line
+         */
+        public String highlight(String line, Player player, String highlight) {
+            StringBuilder builder = new StringBuilder(line.length() + 16);
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                if (players[i] != player) {
+                    continue;
+                }
+                builder.append(line, position, starts[i])
+                        .append(highlight)
+                        .append(line, starts[i], ends[i])
+                        .append(ChatColor.COLOR_CHAR).append('r');
+                appendActiveColors(line, starts[i], builder);
+                position = ends[i];
+            }
+            return builder.append(line, position, line.length()).toString();
+        }
+
+        void add(Player player, int start, int end) {
+            if (count == players.length) {
+                players = Arrays.copyOf(players, count * 2);
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            players[count] = player;
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+
+        /**
+         * Appends the color and format codes in effect at a position.
+         */
+        private static void appendActiveColors(String line, int position, StringBuilder out) {
+            int colorAt = -1;
+            int formatsFrom = 0;
+            for (int i = 0; i + 1 < position; i++) {
+                if (line.charAt(i) != ChatColor.COLOR_CHAR) {
+                    continue;
+                }
+                char code = Character.toLowerCase(line.charAt(i + 1));
+                if ((code >= '0' && code <= '9') || (code >= 'a' && code <= 'f') || code == 'r') {
+                    // Colors and resets clear formats
+                    colorAt = code == 'r' ? -1 : i;
+                    formatsFrom = i + 2;
+                }
+                i++;
+            }
+
+            if (colorAt >= 0) {
+                out.append(line, colorAt, colorAt + 2);
+            }
+            for (int i = formatsFrom; i + 1 < position; i++) {
+                if (line.charAt(i) == ChatColor.COLOR_CHAR) {
+                    char code = Character.toLowerCase(line.charAt(i + 1));
+                    if (code >= 'k' && code <= 'o') {
+                        out.append(line, i, i + 2);
+                    }
+                    i++;
+                }
+            }
+        }
+    }
+}
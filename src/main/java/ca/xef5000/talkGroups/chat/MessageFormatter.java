@@ -0,0 +1,107 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.config.TalkGroupDiff;
+import ca.xef5000.talkGroups.model.TalkGroup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders channel lines using per-TalkGroup compiled formats.
+ * Compiled formats are kept across reloads for TalkGroups that did not change,
+ * as long as the channel.format template itself is unchanged. They are looked
+ * up by channel ID and checked against the TalkGroup instance, so a lookup
+ * neither hashes the whole TalkGroup nor allocates.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class MessageFormatter {
+
+    private final ConfigManager configManager;
+    private final Map<String, Compiled> formats;
+    private volatile String template;
+
+    /**
+     * Creates a new MessageFormatter instance.
+     *
+     * @param configManager The config manager providing the channel.format template
+     */
+    public MessageFormatter(ConfigManager configManager) {
+        this.configManager = configManager;
+        this.formats = new ConcurrentHashMap<>();
+        this.template = configManager.getMessage("channel.format");
+    }
+
+    /**
+     * Renders a channel line into the calling thread's buffer.
+     *
+     * @param group The TalkGroup
+     * @param senderName The sender's name
+     * @param args The command arguments making up the message
+     * @param offset Index of the first argument that belongs to the message
+     * @param colors true to translate '&' color codes in the message, false to strip them
+     * @return The thread's buffer holding the rendered line
+     */
+    public ChatBuffer render(TalkGroup group, String senderName, String[] args, int offset, boolean colors) {
+        return ChatBuffer.acquire().render(getFormat(group), senderName, args, offset, colors);
+    }
+
+    /**
+     * Renders a channel line into the calling thread's buffer.
+     *
+     * @param group The TalkGroup
+     * @param senderName The sender's name
+     * @param message The message
+     * @param colors true to translate '&' color codes in the message, false to strip them
+     * @return The thread's buffer holding the rendered line
+     */
+    public ChatBuffer render(TalkGroup group, String senderName, String message, boolean colors) {
+        return ChatBuffer.acquire().render(getFormat(group), senderName, message, colors);
+    }
+
+    /**
+     * Gets the compiled format of a TalkGroup, compiling it on first use.
+     *
+     * @param group The TalkGroup
+     * @return The compiled format
+     */
+    public ChannelFormat getFormat(TalkGroup group) {
+        Compiled compiled = formats.get(group.getId());
+        if (compiled == null || compiled.group != group) {
+            // Unchanged TalkGroups keep their instance across reloads, a changed one is a new instance
+            compiled = new Compiled(group, ChannelFormat.compile(template, group));
+            formats.put(group.getId(), compiled);
+        }
+        return compiled.format;
+    }
+
+    /**
+     * Drops compiled formats invalidated by a reload.
+     *
+     * @param diff The changes produced by the reload
+     */
+    public void onReload(TalkGroupDiff diff) {
+        String updated = configManager.getMessage("channel.format");
+
+        if (!updated.equals(template)) {
+            template = updated;
+            formats.clear();
+            return;
+        }
+
+        for (TalkGroup group : diff.getRemoved()) {
+            formats.remove(group.getId());
+        }
+        for (TalkGroup group : diff.getChanged().keySet()) {
+            formats.remove(group.getId());
+        }
+    }
+
+    /**
+     * A compiled format and the TalkGroup instance it was compiled for.
+     */
+    private record Compiled(TalkGroup group, ChannelFormat format) {
+    }
+}
@@ -0,0 +1,193 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers channel lines within a time budget per tick, by channel
+ * priority. While the budget lasts and nothing is waiting, lines are sent
+ * right away. Once it is spent, normal and low priority lines wait for the
+ * next tick, normal ones first; high priority lines are always sent right
+ * away. The queue is bounded: when it is full the oldest low priority line
+ * is dropped first, and low priority lines that waited too long are dropped
+ * too, so a burst of low priority chat cannot delay staff traffic or grow
+ * without limit. Only used from the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class OutboundQueue {
+
+    private final TalkGroups plugin;
+    private final ArrayDeque<Delivery> normal;
+    private final ArrayDeque<Delivery> low;
+    private final LongAdder deferred;
+    private final LongAdder shedLow;
+    private final LongAdder shedNormal;
+    private BukkitTask task;
+    private long budgetNanos;
+    private long maxDelayNanos;
+    private int capacity;
+    private long spentNanos;
+
+    /**
+     * Creates a new OutboundQueue instance.
+     *
+     * @param plugin The plugin instance
+     */
+    OutboundQueue(TalkGroups plugin) {
+        this.plugin = plugin;
+        this.normal = new ArrayDeque<>();
+        this.low = new ArrayDeque<>();
+        MetricsRegistry metrics = plugin.getMetrics();
+        this.deferred = metrics.counter(MetricsRegistry.OUTBOUND_DEFERRED);
+        this.shedLow = metrics.counter(MetricsRegistry.OUTBOUND_SHED_LOW);
+        this.shedNormal = metrics.counter(MetricsRegistry.OUTBOUND_SHED_NORMAL);
+        metrics.gauge(MetricsRegistry.OUTBOUND_DEPTH, this::size);
+        reload();
+    }
+
+    /**
+     * Reads the queue settings from config.yml.
+     */
+    public void reload() {
+        ConfigManager configManager = plugin.getConfigManager();
+        double budgetMs = configManager.getConfig().getDouble("settings.outbound.tick-budget-ms", 10.0D);
+        this.budgetNanos = budgetMs <= 0.0D ? Long.MAX_VALUE : (long) (budgetMs * 1_000_000.0D);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0L, configManager.getConfig().getLong("settings.outbound.max-delay-ms", 2000L)));
+        this.capacity = Math.max(1, configManager.getConfig().getInt("settings.outbound.queue-capacity", 1000));
+    }
+
+    /**
+     * Starts sending waiting lines at the start of every tick.
+     */
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stops the timer and sends every waiting line.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        drain(normal, Long.MAX_VALUE);
+        drain(low, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sends a line to the first {@code count} recipients now, or queues it if
+     * this tick's budget is spent. The recipient entries are cleared either way.
+     *
+     * @param priority The priority of the channel
+     * @param recipients The recipients
+     * @param count The number of recipients
+     * @param line The line to send
+     */
+    public void deliver(TalkGroup.Priority priority, Player[] recipients, int count, String line) {
+        deliver(priority, recipients, count, line, null);
+    }
+
+    /**
+     * Sends a line like {@link #deliver(TalkGroup.Priority, Player[], int, String)}
+     * and runs an action once it was sent, such as playing the mention sound.
+     * The action is dropped along with the line if the line is shed.
+     *
+     * @param priority The priority of the channel
+     * @param recipients The recipients
+     * @param count The number of recipients
+     * @param line The line to send
+     * @param then The action to run after sending, or null
+     */
+    public void deliver(TalkGroup.Priority priority, Player[] recipients, int count, String line, Runnable then) {
+        // Lines of a priority never overtake waiting lines of the same or a higher priority
+        boolean now = switch (priority) {
+            case HIGH -> true;
+            case NORMAL -> normal.isEmpty() && spentNanos < budgetNanos;
+            case LOW -> normal.isEmpty() && low.isEmpty() && spentNanos < budgetNanos;
+        };
+        if (now) {
+            long start = System.nanoTime();
+            plugin.getFanOut().deliver(recipients, count, line);
+            if (then != null) {
+                then.run();
+            }
+            spentNanos += System.nanoTime() - start;
+            return;
+        }
+
+        // The recipient array is a reused buffer, so the waiting line keeps a copy
+        Delivery delivery = new Delivery(Arrays.copyOf(recipients, count), line, then, System.nanoTime());
+        Arrays.fill(recipients, 0, count, null);
+
+        if (normal.size() + low.size() >= capacity) {
+            if (!low.isEmpty()) {
+                low.poll();
+                shedLow.increment();
+            } else if (priority == TalkGroup.Priority.LOW) {
+                shedLow.increment();
+                return;
+            } else {
+                normal.poll();
+                shedNormal.increment();
+            }
+        }
+        (priority == TalkGroup.Priority.LOW ? low : normal).add(delivery);
+        deferred.increment();
+    }
+
+    /**
+     * Gets the number of lines waiting to be sent.
+     *
+     * @return The queue depth
+     */
+    public int size() {
+        return normal.size() + low.size();
+    }
+
+    /**
+     * Starts a new tick budget and sends waiting lines, normal priority first.
+     */
+    private void tick() {
+        spentNanos = 0L;
+        long now = System.nanoTime();
+        while (!low.isEmpty() && now - low.peek().queuedAt > maxDelayNanos) {
+            low.poll();
+            shedLow.increment();
+        }
+        drain(normal, budgetNanos);
+        drain(low, budgetNanos);
+    }
+
+    private void drain(ArrayDeque<Delivery> queue, long budget) {
+        FanOut fanOut = plugin.getFanOut();
+        while (!queue.isEmpty() && spentNanos < budget) {
+            Delivery delivery = queue.poll();
+            long start = System.nanoTime();
+            fanOut.deliver(delivery.recipients, delivery.recipients.length, delivery.line);
+            if (delivery.then != null) {
+                delivery.then.run();
+            }
+            spentNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * A line waiting to be sent.
+     */
+    private record Delivery(Player[] recipients, String line, Runnable then, long queuedAt) {
+    }
+}
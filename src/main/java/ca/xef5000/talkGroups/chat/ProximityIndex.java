@@ -0,0 +1,239 @@
+package ca.xef5000.talkGroups.chat;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spatial index of online players for proximity and world-scoped
+ * TalkGroups. Players are bucketed per world into chunk-sized cells, and
+ * their block position is kept alongside so distance checks need no
+ * {@link Player#getLocation()} call. A radius broadcast only visits the
+ * cells overlapping its circle, or only the occupied cells when those are
+ * fewer. Positions are updated on block changes and players only move
+ * between cells on chunk changes. Only used from the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ProximityIndex {
+
+    private static final int CELL_SHIFT = 4;
+
+    private final Map<String, WorldCells> worlds;
+    private final Map<UUID, Entry> entries;
+    private final List<Player> scratch;
+
+    /**
+     * Creates a new ProximityIndex instance.
+     */
+    public ProximityIndex() {
+        this.worlds = new HashMap<>();
+        this.entries = new HashMap<>();
+        this.scratch = new ArrayList<>();
+    }
+
+    /**
+     * Adds a player at their current location, or moves them there if
+     * already tracked.
+     *
+     * @param player The player
+     */
+    public void track(Player player) {
+        move(player, player.getLocation());
+    }
+
+    /**
+     * Updates the position of a player. Cheap when the player stays in the
+     * same chunk, since only the stored block position changes.
+     *
+     * @param player The player
+     * @param to The new location
+     */
+    public void move(Player player, Location to) {
+        World world = to.getWorld();
+        if (world == null) {
+            return;
+        }
+
+        int x = to.getBlockX();
+        int z = to.getBlockZ();
+        long cell = cellKey(x >> CELL_SHIFT, z >> CELL_SHIFT);
+
+        Entry entry = entries.get(player.getUniqueId());
+        if (entry == null) {
+            entry = new Entry(player);
+            entries.put(player.getUniqueId(), entry);
+        } else if (entry.cells.world != world || entry.cell != cell) {
+            unlink(entry);
+        } else {
+            entry.x = x;
+            entry.y = to.getBlockY();
+            entry.z = z;
+            return;
+        }
+
+        entry.x = x;
+        entry.y = to.getBlockY();
+        entry.z = z;
+        entry.cell = cell;
+        entry.cells = worlds.computeIfAbsent(world.getName(), name -> new WorldCells(world));
+        entry.cells.world = world;
+        entry.cells.players.add(player);
+        entry.cells.cells.computeIfAbsent(cell, key -> new ArrayList<>(4)).add(entry);
+    }
+
+    /**
+     * Removes a player from the index.
+     *
+     * @param playerId The player's UUID
+     */
+    public void untrack(UUID playerId) {
+        Entry entry = entries.remove(playerId);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Drops every tracked player.
+     */
+    public void clear() {
+        worlds.clear();
+        entries.clear();
+    }
+
+    private void unlink(Entry entry) {
+        WorldCells cells = entry.cells;
+        cells.players.remove(entry.player);
+
+        List<Entry> cell = cells.cells.get(entry.cell);
+        if (cell != null) {
+            cell.remove(entry);
+            if (cell.isEmpty()) {
+                cells.cells.remove(entry.cell);
+            }
+        }
+        if (cells.players.isEmpty()) {
+            worlds.remove(cells.world.getName());
+        }
+    }
+
+    /**
+     * Collects the players that can hear a local TalkGroup: those in one of
+     * its worlds and, if it has a radius and the sender has a location,
+     * within that many blocks of the sender. The returned list is reused by
+     * the next call.
+     *
+     * @param group The TalkGroup, with a radius or a world list
+     * @param origin The sender's location, or null for the console
+     * @return The candidate recipients, before permission and mute checks
+     */
+    public List<Player> collect(TalkGroup group, Location origin) {
+        scratch.clear();
+
+        if (group.getRadius() > 0 && origin != null && origin.getWorld() != null) {
+            WorldCells cells = worlds.get(origin.getWorld().getName());
+            if (cells != null && group.isInWorld(cells.world.getName())) {
+                collectNear(cells, origin.getBlockX(), origin.getBlockY(), origin.getBlockZ(), group.getRadius());
+            }
+            return scratch;
+        }
+
+        for (WorldCells cells : worlds.values()) {
+            if (group.isInWorld(cells.world.getName())) {
+                scratch.addAll(cells.players);
+            }
+        }
+        return scratch;
+    }
+
+    private void collectNear(WorldCells cells, int x, int y, int z, int radius) {
+        long radiusSquared = (long) radius * radius;
+        int minX = (x - radius) >> CELL_SHIFT;
+        int maxX = (x + radius) >> CELL_SHIFT;
+        int minZ = (z - radius) >> CELL_SHIFT;
+        int maxZ = (z + radius) >> CELL_SHIFT;
+
+        // A huge radius spans more cells than are occupied, scan the occupied ones instead
+        long cellCount = (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+        if (cellCount > cells.cells.size()) {
+            for (List<Entry> cell : cells.cells.values()) {
+                addWithin(cell, x, y, z, radiusSquared);
+            }
+            return;
+        }
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                List<Entry> cell = cells.cells.get(cellKey(cx, cz));
+                if (cell != null) {
+                    addWithin(cell, x, y, z, radiusSquared);
+                }
+            }
+        }
+    }
+
+    private void addWithin(List<Entry> cell, int x, int y, int z, long radiusSquared) {
+        for (int i = 0; i < cell.size(); i++) {
+            Entry entry = cell.get(i);
+            long dx = entry.x - x;
+            long dy = entry.y - y;
+            long dz = entry.z - z;
+            if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                scratch.add(entry.player);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of tracked players.
+     *
+     * @return The tracked player count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Players and occupied cells of one world.
+     */
+    private static final class WorldCells {
+        private World world;
+        private final List<Player> players;
+        private final Map<Long, List<Entry>> cells;
+
+        private WorldCells(World world) {
+            this.world = world;
+            this.players = new ArrayList<>();
+            this.cells = new HashMap<>();
+        }
+    }
+
+    /**
+     * Position of one tracked player.
+     */
+    private static final class Entry {
+        private final Player player;
+        private WorldCells cells;
+        private long cell;
+        private int x;
+        private int y;
+        private int z;
+
+        private Entry(Player player) {
+            this.player = player;
+        }
+    }
+}
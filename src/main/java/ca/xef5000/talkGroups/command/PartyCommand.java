@@ -0,0 +1,256 @@
+package ca.xef5000.talkGroups.command;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.manager.EphemeralChannel;
+import ca.xef5000.talkGroups.manager.EphemeralChannelManager;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Handles /tg party, a player-created ephemeral channel. All parties share
+ * one template TalkGroup built from config.yml, and a player can be in one
+ * party at a time.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class PartyCommand {
+
+    /**
+     * Permission required to use parties.
+     */
+    public static final String PERMISSION = "talkgroups.party";
+
+    /**
+     * ID of the party template TalkGroup, also the prefix of party channel IDs.
+     */
+    public static final String KIND = "party";
+
+    static final String[] SUBCOMMANDS = {"create", "invite", "accept", "chat", "kick", "leave", "disband"};
+
+    private final TalkGroups plugin;
+    private TalkGroup template;
+    private int maxMembers;
+
+    /**
+     * Creates a new PartyCommand instance.
+     *
+     * @param plugin The plugin instance
+     */
+    public PartyCommand(TalkGroups plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Rebuilds the party template from config.yml. Existing parties keep
+     * their template until they are disbanded.
+     */
+    public void reload() {
+        ConfigManager configManager = plugin.getConfigManager();
+        String name = configManager.getConfig().getString("settings.party.name", "&d&lPARTY");
+        this.template = new TalkGroup.Builder()
+                .id(KIND)
+                .name(name)
+                .permission(PERMISSION)
+                .alias(KIND)
+                .prefix(configManager.getConfig().getString("settings.party.prefix", "&8[&d&lPARTY&8]"))
+                .build();
+        this.maxMembers = configManager.getConfig().getInt("settings.party.max-members", 20);
+    }
+
+    /**
+     * Handles the party subcommand.
+     *
+     * @param player The player
+     * @param args The /tg arguments, starting with "party"
+     * @return true
+     */
+    public boolean handle(Player player, String[] args) {
+        if (!player.hasPermission(PERMISSION)) {
+            send(player, "command.no-permission");
+            return true;
+        }
+
+        if (args.length < 2) {
+            send(player, "party.usage");
+            return true;
+        }
+
+        EphemeralChannelManager channels = plugin.getEphemeralChannels();
+        EphemeralChannel party = channels.find(player.getUniqueId(), KIND);
+
+        switch (args[1].toLowerCase(Locale.ROOT)) {
+            case "create":
+                if (party != null) {
+                    send(player, "party.already-in-party");
+                } else {
+                    channels.create(template, player);
+                    send(player, "party.created");
+                }
+                return true;
+
+            case "accept":
+                if (party != null) {
+                    send(player, "party.already-in-party");
+                    return true;
+                }
+                party = channels.getInvite(player.getUniqueId());
+                if (party != null && party.isActive() && party.size() >= maxMembers) {
+                    // Several invites may have been sent while the party had room
+                    send(player, "party.full");
+                    return true;
+                }
+                party = channels.acceptInvite(player);
+                if (party == null) {
+                    send(player, "party.no-invite");
+                } else {
+                    broadcast(party, "party.joined", player.getName());
+                }
+                return true;
+
+            default:
+                break;
+        }
+
+        if (party == null) {
+            send(player, "party.not-in-party");
+            return true;
+        }
+
+        switch (args[1].toLowerCase(Locale.ROOT)) {
+            case "chat":
+                if (args.length < 3 || !channels.send(party, player, args, 2)) {
+                    send(player, "party.usage");
+                }
+                return true;
+
+            case "invite":
+                return handleInvite(player, party, args);
+
+            case "kick":
+                return handleKick(player, party, args);
+
+            case "leave":
+                channels.leave(party, player.getUniqueId());
+                send(player, "party.left-self");
+                if (party.isActive()) {
+                    broadcast(party, "party.left", player.getName());
+                }
+                return true;
+
+            case "disband":
+                if (!party.isOwner(player.getUniqueId())) {
+                    send(player, "party.not-owner");
+                    return true;
+                }
+                broadcast(party, "party.disbanded", player.getName());
+                channels.disband(party);
+                return true;
+
+            default:
+                send(player, "party.usage");
+                return true;
+        }
+    }
+
+    private boolean handleInvite(Player player, EphemeralChannel party, String[] args) {
+        if (args.length < 3) {
+            send(player, "party.usage");
+            return true;
+        }
+        if (!party.isOwner(player.getUniqueId())) {
+            send(player, "party.not-owner");
+            return true;
+        }
+        if (party.size() >= maxMembers) {
+            send(player, "party.full");
+            return true;
+        }
+
+        Player target = Bukkit.getPlayerExact(args[2]);
+        if (target == null || target == player) {
+            send(player, "party.player-not-found", "player", args[2]);
+            return true;
+        }
+
+        plugin.getEphemeralChannels().invite(party, target.getUniqueId());
+        send(player, "party.invited", "player", target.getName());
+        send(target, "party.invite-received", "player", player.getName());
+        return true;
+    }
+
+    private boolean handleKick(Player player, EphemeralChannel party, String[] args) {
+        if (args.length < 3) {
+            send(player, "party.usage");
+            return true;
+        }
+        if (!party.isOwner(player.getUniqueId())) {
+            send(player, "party.not-owner");
+            return true;
+        }
+
+        Player target = Bukkit.getPlayerExact(args[2]);
+        if (target == null || target == player
+                || !plugin.getEphemeralChannels().leave(party, target.getUniqueId())) {
+            send(player, "party.player-not-found", "player", args[2]);
+            return true;
+        }
+
+        send(target, "party.kicked");
+        broadcast(party, "party.left", target.getName());
+        return true;
+    }
+
+    /**
+     * Announces a player leaving a party, for example when they quit.
+     *
+     * @param party The party
+     * @param playerName The name of the player who left
+     */
+    public void announceLeave(EphemeralChannel party, String playerName) {
+        if (party.isActive() && party.getTemplate().getId().equals(KIND)) {
+            broadcast(party, "party.left", playerName);
+        }
+    }
+
+    /**
+     * Adds party subcommand completions.
+     *
+     * @param args The /tg arguments, starting with "party"
+     * @param completions Receives the completions
+     */
+    void complete(String[] args, List<String> completions) {
+        if (args.length == 2) {
+            String prefix = args[1].toLowerCase(Locale.ROOT);
+            for (String subCommand : SUBCOMMANDS) {
+                if (subCommand.startsWith(prefix)) {
+                    completions.add(subCommand);
+                }
+            }
+        } else if (args.length == 3 && (args[1].equalsIgnoreCase("invite") || args[1].equalsIgnoreCase("kick"))) {
+            String prefix = args[2].toLowerCase(Locale.ROOT);
+            for (Player online : Bukkit.getOnlinePlayers()) {
+                if (online.getName().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                    completions.add(online.getName());
+                }
+            }
+        }
+    }
+
+    private void broadcast(EphemeralChannel party, String key, String playerName) {
+        plugin.getEphemeralChannels().broadcast(party, ChatColor.translateAlternateColorCodes('&',
+                plugin.getConfigManager().getMessage(key, "player", playerName)));
+    }
+
+    private void send(Player player, String key, String... replacements) {
+        player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                plugin.getConfigManager().getMessage(key, replacements)));
+    }
+}
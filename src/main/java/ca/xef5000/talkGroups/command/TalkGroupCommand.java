@@ -2,9 +2,14 @@ package ca.xef5000.talkGroups.command;
 
 import ca.xef5000.talkGroups.TalkGroups;
 import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.config.TalkGroupRegistry;
 import ca.xef5000.talkGroups.gui.GUIManager;
 import ca.xef5000.talkGroups.manager.PlayerDataManager;
+import ca.xef5000.talkGroups.metrics.ChannelMetrics;
+import ca.xef5000.talkGroups.metrics.Histogram;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
 import ca.xef5000.talkGroups.model.PlayerData;
+import ca.xef5000.talkGroups.model.PlayerPermissions;
 import ca.xef5000.talkGroups.model.TalkGroup;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -14,9 +19,9 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.logging.Level;
 
 /**
  * Main command handler for /talkgroups and /tg.
@@ -26,7 +31,10 @@ import java.util.stream.Collectors;
  */
 public class TalkGroupCommand implements CommandExecutor, TabCompleter {
     
+    private static final String[] SUBCOMMANDS = {"mute", "unmute", "toggle", "focus", "inbox", "list", "help"};
+    
     private final TalkGroups plugin;
+    private final PartyCommand partyCommand;
     
     /**
      * Creates a new TalkGroupCommand instance.
@@ -35,6 +43,16 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
      */
     public TalkGroupCommand(TalkGroups plugin) {
         this.plugin = plugin;
+        this.partyCommand = new PartyCommand(plugin);
+    }
+    
+    /**
+     * Gets the handler of the party subcommand.
+     * 
+     * @return The PartyCommand
+     */
+    public PartyCommand getPartyCommand() {
+        return partyCommand;
     }
     
     @Override
@@ -66,12 +84,25 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
             case "toggle":
                 return handleToggle(player, args);
             
+            case "focus":
+                return handleFocus(player, args);
+            
+            case "inbox":
+                plugin.getInboxManager().showPage(player, false);
+                return true;
+            
             case "reload":
                 return handleReload(player);
             
             case "list":
                 return handleList(player);
             
+            case "stats":
+                return handleStats(player);
+            
+            case "party":
+                return partyCommand.handle(player, args);
+            
             case "help":
                 return handleHelp(player);
             
@@ -103,7 +134,7 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        if (!player.hasPermission(group.getPermission())) {
+        if (!plugin.getPermissionCache().canAccess(player, group)) {
             player.sendMessage(ChatColor.translateAlternateColorCodes('&',
                     configManager.getMessage("command.no-permission")));
             return true;
@@ -145,7 +176,7 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        if (!player.hasPermission(group.getPermission())) {
+        if (!plugin.getPermissionCache().canAccess(player, group)) {
             player.sendMessage(ChatColor.translateAlternateColorCodes('&',
                     configManager.getMessage("command.no-permission")));
             return true;
@@ -181,7 +212,7 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        if (!player.hasPermission(group.getPermission())) {
+        if (!plugin.getPermissionCache().canAccess(player, group)) {
             player.sendMessage(ChatColor.translateAlternateColorCodes('&',
                     configManager.getMessage("command.no-permission")));
             return true;
@@ -205,6 +236,40 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
         return true;
     }
     
+    /**
+     * Handles the focus subcommand. Without a channel, or with "off", chat
+     * goes back to public chat.
+     */
+    private boolean handleFocus(Player player, String[] args) {
+        ConfigManager configManager = plugin.getConfigManager();
+        
+        if (args.length < 2 || args[1].equalsIgnoreCase("off")) {
+            String key = plugin.getChatRouter().unfocus(player.getUniqueId()) ? "focus.cleared" : "focus.usage";
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&', configManager.getMessage(key)));
+            return true;
+        }
+        
+        String channelId = args[1];
+        TalkGroup group = configManager.getTalkGroup(channelId);
+        
+        if (group == null) {
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.channel-not-found", "channel", channelId)));
+            return true;
+        }
+        
+        if (!plugin.getPermissionCache().canAccess(player, group)) {
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.no-permission")));
+            return true;
+        }
+        
+        plugin.getChatRouter().focus(player.getUniqueId(), group.getId());
+        player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                configManager.getMessage("focus.set", "channel", group.getFormattedName())));
+        return true;
+    }
+    
     /**
      * Handles the reload subcommand.
      */
@@ -217,11 +282,22 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        configManager.reloadConfig();
-        plugin.reregisterCommands();
-        
-        player.sendMessage(ChatColor.translateAlternateColorCodes('&',
-                configManager.getMessage("command.reload.success")));
+        plugin.reloadConfiguration().whenComplete((diff, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to reload configuration", error);
+                player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                        configManager.getMessage("command.reload.failed")));
+                return;
+            }
+            
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.reload.success")));
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.reload.changes",
+                            "added", diff.getAdded().size(),
+                            "changed", diff.getChanged().size(),
+                            "removed", diff.getRemoved().size())));
+        });
         
         return true;
     }
@@ -237,8 +313,12 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(ChatColor.translateAlternateColorCodes('&',
                 configManager.getMessage("command.list.header")));
         
-        for (TalkGroup group : configManager.getAllTalkGroups().values()) {
-            if (player.hasPermission(group.getPermission())) {
+        TalkGroupRegistry registry = configManager.getRegistry();
+        PlayerPermissions permissions = plugin.getPermissionCache().get(player, registry);
+        
+        for (int i = 0; i < registry.size(); i++) {
+            TalkGroup group = registry.get(i);
+            if (permissions.canAccess(i)) {
                 boolean isMuted = playerData.isChannelMuted(group.getId());
                 String status = isMuted ? ChatColor.RED + "Muted" : ChatColor.GREEN + "Unmuted";
                 
@@ -250,6 +330,84 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
         return true;
     }
     
+    /**
+     * Handles the stats subcommand.
+     */
+    private boolean handleStats(Player player) {
+        ConfigManager configManager = plugin.getConfigManager();
+        
+        if (!player.hasPermission("talkgroups.admin.stats")) {
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("command.no-permission")));
+            return true;
+        }
+        
+        MetricsRegistry metrics = plugin.getMetrics();
+        long uptime = (System.currentTimeMillis() - metrics.getStartTime()) / 1000L;
+        
+        player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                configManager.getMessage("command.stats.header")));
+        player.sendMessage(ChatColor.YELLOW + "Uptime: " + ChatColor.GRAY + (uptime / 3600) + "h "
+                + (uptime / 60 % 60) + "m " + (uptime % 60) + "s");
+        
+        Histogram.Snapshot send = metrics.timer(MetricsRegistry.CHAT_SEND).snapshot();
+        Histogram.Snapshot fanout = metrics.histogram(MetricsRegistry.CHAT_FANOUT).snapshot();
+        player.sendMessage(ChatColor.YELLOW + "Chat: " + ChatColor.GRAY + send.getCount() + " messages, "
+                + formatTimings(send) + ", fan-out avg " + format(fanout.getMean())
+                + " / max " + fanout.getMax());
+        
+        player.sendMessage(ChatColor.YELLOW + "Outbound: " + ChatColor.GRAY
+                + plugin.getChannelSender().getOutboundQueue().size() + " waiting, "
+                + metrics.counter(MetricsRegistry.OUTBOUND_DEFERRED).sum() + " deferred, "
+                + metrics.counter(MetricsRegistry.OUTBOUND_SHED_LOW).sum() + " low / "
+                + metrics.counter(MetricsRegistry.OUTBOUND_SHED_NORMAL).sum() + " normal dropped");
+        
+        for (ChannelMetrics channel : metrics.getChannels().values()) {
+            double recipients = channel.getMessages() == 0 ? 0.0D
+                    : (double) channel.getRecipients() / channel.getMessages();
+            player.sendMessage(ChatColor.GRAY + "- " + channel.getChannelId() + ": "
+                    + channel.getMessages() + " messages, " + format(recipients) + " recipients avg, "
+                    + channel.getMuted() + " muted deliveries");
+        }
+        
+        player.sendMessage(ChatColor.YELLOW + "Database: " + ChatColor.GRAY
+                + plugin.getDatabaseManager().getPendingOperations() + " pending");
+        for (String name : new String[]{MetricsRegistry.DB_LOAD, MetricsRegistry.DB_SAVE,
+                MetricsRegistry.DB_REMOVE, MetricsRegistry.DB_CLEAR, MetricsRegistry.DB_INBOX}) {
+            Histogram.Snapshot timer = metrics.timer(name).snapshot();
+            player.sendMessage(ChatColor.GRAY + "- " + name + ": " + timer.getCount() + " ops, "
+                    + formatTimings(timer));
+        }
+        
+        long hits = metrics.counter(MetricsRegistry.PLAYERDATA_CACHE_HITS).sum();
+        long misses = metrics.counter(MetricsRegistry.PLAYERDATA_CACHE_MISSES).sum();
+        double hitRate = hits + misses == 0 ? 0.0D : 100.0D * hits / (hits + misses);
+        player.sendMessage(ChatColor.YELLOW + "Player data cache: " + ChatColor.GRAY
+                + format(hitRate) + "% hits (" + hits + "/" + (hits + misses) + ")");
+        
+        Histogram.Snapshot render = metrics.timer(MetricsRegistry.GUI_RENDER).snapshot();
+        player.sendMessage(ChatColor.YELLOW + "GUI: " + ChatColor.GRAY + render.getCount() + " renders, "
+                + formatTimings(render));
+        
+        return true;
+    }
+    
+    /**
+     * Formats the p50, p99 and max of a nanosecond timer in milliseconds.
+     */
+    private String formatTimings(Histogram.Snapshot timer) {
+        return "p50 " + format(timer.getPercentile(50) / 1_000_000.0D) + "ms, p99 "
+                + format(timer.getPercentile(99) / 1_000_000.0D) + "ms, max "
+                + format(timer.getMax() / 1_000_000.0D) + "ms";
+    }
+    
+    /**
+     * Formats a number with two decimals.
+     */
+    private String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+    
     /**
      * Handles the help subcommand.
      */
@@ -262,36 +420,85 @@ public class TalkGroupCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(ChatColor.YELLOW + "/tg mute <channel>" + ChatColor.GRAY + " - Mute a channel");
         player.sendMessage(ChatColor.YELLOW + "/tg unmute <channel>" + ChatColor.GRAY + " - Unmute a channel");
         player.sendMessage(ChatColor.YELLOW + "/tg toggle <channel>" + ChatColor.GRAY + " - Toggle channel mute");
+        player.sendMessage(ChatColor.YELLOW + "/tg focus <channel|off>" + ChatColor.GRAY + " - Chat in a channel without its command");
+        player.sendMessage(ChatColor.YELLOW + "/tg inbox" + ChatColor.GRAY + " - Read messages sent while you were offline");
         player.sendMessage(ChatColor.YELLOW + "/tg list" + ChatColor.GRAY + " - List all channels");
         
+        if (player.hasPermission(PartyCommand.PERMISSION)) {
+            player.sendMessage(ChatColor.YELLOW + "/tg party <create|invite|accept|chat|kick|leave|disband>"
+                    + ChatColor.GRAY + " - Manage your party");
+        }
+        
         if (player.hasPermission("talkgroups.admin.reload")) {
             player.sendMessage(ChatColor.YELLOW + "/tg reload" + ChatColor.GRAY + " - Reload configuration");
         }
         
+        if (player.hasPermission("talkgroups.admin.stats")) {
+            player.sendMessage(ChatColor.YELLOW + "/tg stats" + ChatColor.GRAY + " - Show performance statistics");
+        }
+        
         return true;
     }
     
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        return complete(sender, args);
+    }
+    
+    /**
+     * Computes completions for the arguments of /tg. Channel arguments are
+     * looked up in the registry's prefix index and filtered by the sender's
+     * cached channel access. Safe to call from async tab-complete events.
+     * 
+     * @param sender The sender completing the command
+     * @param args The arguments typed so far, the last one possibly empty
+     * @return The matching completions
+     */
+    public List<String> complete(CommandSender sender, String[] args) {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("mute", "unmute", "toggle", "list", "help"));
-            if (sender.hasPermission("talkgroups.admin.reload")) {
+            String prefix = args[0].toLowerCase(Locale.ROOT);
+            for (String subCommand : SUBCOMMANDS) {
+                if (subCommand.startsWith(prefix)) {
+                    completions.add(subCommand);
+                }
+            }
+            if ("reload".startsWith(prefix) && sender.hasPermission("talkgroups.admin.reload")) {
                 completions.add("reload");
             }
-            return completions.stream()
-                    .filter(s -> s.toLowerCase().startsWith(args[0].toLowerCase()))
-                    .collect(Collectors.toList());
+            if ("stats".startsWith(prefix) && sender.hasPermission("talkgroups.admin.stats")) {
+                completions.add("stats");
+            }
+            if ("party".startsWith(prefix) && sender.hasPermission(PartyCommand.PERMISSION)) {
+                completions.add("party");
+            }
+            return completions;
+        }
+        
+        if (args[0].equalsIgnoreCase("party")) {
+            if (sender.hasPermission(PartyCommand.PERMISSION)) {
+                partyCommand.complete(args, completions);
+            }
+            return completions;
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("focus") && "off".startsWith(args[1].toLowerCase(Locale.ROOT))) {
+            completions.add("off");
         }
         
         if (args.length == 2 && (args[0].equalsIgnoreCase("mute") || 
                 args[0].equalsIgnoreCase("unmute") || 
-                args[0].equalsIgnoreCase("toggle"))) {
-            ConfigManager configManager = plugin.getConfigManager();
-            return configManager.getAllTalkGroups().keySet().stream()
-                    .filter(id -> id.toLowerCase().startsWith(args[1].toLowerCase()))
-                    .collect(Collectors.toList());
+                args[0].equalsIgnoreCase("toggle") || 
+                args[0].equalsIgnoreCase("focus"))) {
+            TalkGroupRegistry registry = plugin.getConfigManager().getRegistry();
+            
+            if (sender instanceof Player player) {
+                PlayerPermissions permissions = plugin.getPermissionCache().get(player, registry);
+                registry.getPrefixIndex().complete(args[1], permissions::canAccess, completions);
+            } else {
+                registry.getPrefixIndex().complete(args[1], index -> true, completions);
+            }
         }
         
         return completions;
@@ -0,0 +1,161 @@
+package ca.xef5000.talkGroups.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs the plugin's blocking background work, such as database calls and
+ * configuration parsing, away from {@code ForkJoinPool.commonPool()} so it
+ * never competes with other plugins for the shared CPU-sized pool.
+ * On Java 21 and newer each task can run on its own virtual thread; on older
+ * runtimes a small pool of platform threads is used instead. Virtual threads
+ * are looked up reflectively so the plugin still targets Java 17.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class AsyncExecutor implements Executor {
+
+    private static final String THREAD_PREFIX = "TalkGroups-Async-";
+
+    /**
+     * How tasks are mapped to threads.
+     */
+    public enum Mode {
+        /** Virtual threads when the runtime supports them, platform threads otherwise */
+        AUTO,
+        /** One virtual thread per task */
+        VIRTUAL,
+        /** A fixed pool of platform threads */
+        PLATFORM
+    }
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int threads;
+
+    private AsyncExecutor(ExecutorService executor, boolean virtual, int threads) {
+        this.executor = executor;
+        this.virtual = virtual;
+        this.threads = threads;
+    }
+
+    /**
+     * Creates an executor for the given mode, falling back to platform threads
+     * when virtual threads were requested but are not available.
+     *
+     * @param mode The requested mode
+     * @param threads The number of platform threads, if platform threads are used
+     * @param logger The logger for fallback warnings
+     * @return The executor
+     */
+    public static AsyncExecutor create(Mode mode, int threads, Logger logger) {
+        if (mode != Mode.PLATFORM) {
+            ExecutorService virtualExecutor = newVirtualExecutor();
+            if (virtualExecutor != null) {
+                return new AsyncExecutor(virtualExecutor, true, 0);
+            }
+            if (mode == Mode.VIRTUAL) {
+                logger.warning("Virtual threads require Java 21 or newer, using platform threads instead");
+            }
+        }
+        return platform(threads);
+    }
+
+    /**
+     * Creates an executor backed by a fixed pool of platform threads.
+     *
+     * @param threads The number of threads
+     * @return The executor
+     */
+    public static AsyncExecutor platform(int threads) {
+        int size = Math.max(1, threads);
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new AsyncExecutor(pool, false, size);
+    }
+
+    /**
+     * Parses a mode name from config.yml.
+     *
+     * @param name The mode name
+     * @return The mode, or null if unknown
+     */
+    public static Mode parseMode(String name) {
+        try {
+            return Mode.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a thread-per-task executor of named virtual threads through
+     * reflection, since the API only exists from Java 21.
+     *
+     * @return The executor, or null if virtual threads are not available
+     */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_PREFIX, 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Checks whether tasks run on virtual threads.
+     *
+     * @return true if virtual threads are used
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Describes the executor for log messages.
+     *
+     * @return The description
+     */
+    public String getDescription() {
+        return virtual ? "virtual threads" : threads + " platform thread" + (threads == 1 ? "" : "s");
+    }
+
+    /**
+     * Stops accepting tasks and waits for the submitted ones to finish.
+     *
+     * @param timeoutMillis The maximum time to wait
+     * @return true if every task finished in time
+     */
+    public boolean shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ca.xef5000.talkGroups.config;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+
+/**
+ * Sorted, lowercase index of TalkGroup IDs for prefix completion. Matches
+ * for a prefix form a contiguous run in the sorted array, so a lookup is a
+ * binary search followed by a scan over the matches only. Immutable and
+ * safe to query from any thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public final class ChannelPrefixIndex {
+
+    private final String[] keys;
+    private final String[] ids;
+    private final int[] indices;
+
+    /**
+     * Builds the index of a registry snapshot.
+     *
+     * @param groups The TalkGroups, by registry index
+     */
+    ChannelPrefixIndex(TalkGroup[] groups) {
+        Integer[] order = new Integer[groups.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> groups[i].getId().toLowerCase(Locale.ROOT)));
+
+        this.keys = new String[order.length];
+        this.ids = new String[order.length];
+        this.indices = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            TalkGroup group = groups[order[i]];
+            keys[i] = group.getId().toLowerCase(Locale.ROOT);
+            ids[i] = group.getId();
+            indices[i] = order[i];
+        }
+    }
+
+    /**
+     * Adds the IDs of all TalkGroups starting with a prefix, ignoring case,
+     * in alphabetical order.
+     *
+     * @param prefix The typed prefix
+     * @param filter Accepts the registry index of each TalkGroup to include
+     * @param out Receives the matching TalkGroup IDs
+     */
+    public void complete(String prefix, IntPredicate filter, Collection<String> out) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+
+        for (int i = lowerBound(key); i < keys.length && keys[i].startsWith(key); i++) {
+            if (filter.test(indices[i])) {
+                out.add(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the first position whose key is not less than the given key.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
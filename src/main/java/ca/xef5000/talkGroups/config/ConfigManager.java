@@ -1,15 +1,24 @@
 package ca.xef5000.talkGroups.config;
 
 import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.model.ContentFilter;
 import ca.xef5000.talkGroups.model.TalkGroup;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 
 /**
@@ -21,10 +30,9 @@ import java.util.logging.Level;
 public class ConfigManager {
     
     private final TalkGroups plugin;
-    private FileConfiguration config;
-    private FileConfiguration messages;
-    private final Map<String, TalkGroup> talkGroups;
-    private final Map<String, String> aliasToId;
+    private volatile FileConfiguration config;
+    private volatile FileConfiguration messages;
+    private volatile TalkGroupRegistry registry;
     
     /**
      * Creates a new ConfigManager instance.
@@ -33,8 +41,7 @@ public class ConfigManager {
      */
     public ConfigManager(TalkGroups plugin) {
         this.plugin = plugin;
-        this.talkGroups = new HashMap<>();
-        this.aliasToId = new HashMap<>();
+        this.registry = TalkGroupRegistry.empty();
     }
     
     /**
@@ -43,65 +50,130 @@ public class ConfigManager {
     public void loadConfig() {
         // Save default config if it doesn't exist
         plugin.saveDefaultConfig();
-        plugin.reloadConfig();
-        config = plugin.getConfig();
         
-        // Load messages.yml
-        loadMessages();
-        
-        // Load TalkGroups
-        loadTalkGroups();
+        TalkGroupDiff diff = apply(parse());
+        plugin.getLogger().info("Loaded " + diff.getResult().size() + " TalkGroup(s)");
     }
     
     /**
-     * Reloads all configuration files.
+     * Reloads all configuration files on the calling thread.
+     * 
+     * @return The changes between the previous and the reloaded TalkGroups
      */
-    public void reloadConfig() {
-        plugin.reloadConfig();
-        config = plugin.getConfig();
-        loadMessages();
-        
-        // Clear existing TalkGroups
-        talkGroups.clear();
-        aliasToId.clear();
-        
-        // Reload TalkGroups
-        loadTalkGroups();
+    public TalkGroupDiff reloadConfig() {
+        return apply(parse());
     }
     
     /**
-     * Loads the messages.yml file.
+     * Parses config.yml and messages.yml off the main thread.
+     * The result must be handed to {@link #apply(Snapshot)} on the main thread.
+     * 
+     * @return CompletableFuture containing the parsed configuration
      */
-    private void loadMessages() {
+    public CompletableFuture<Snapshot> parseAsync() {
+        return CompletableFuture.supplyAsync(this::parse, plugin.getAsyncExecutor());
+    }
+    
+    /**
+     * Parses config.yml and messages.yml without touching the active configuration.
+     * Invalid YAML fails the parse instead of yielding an empty configuration,
+     * so a half-saved file never wipes the loaded TalkGroups.
+     * 
+     * @return The parsed configuration
+     * @throws CompletionException if a file could not be read or parsed
+     */
+    public Snapshot parse() {
+        File configFile = new File(plugin.getDataFolder(), "config.yml");
         File messagesFile = new File(plugin.getDataFolder(), "messages.yml");
         if (!messagesFile.exists()) {
             plugin.saveResource("messages.yml", false);
         }
-        messages = YamlConfiguration.loadConfiguration(messagesFile);
+        
+        FileConfiguration parsedConfig = loadYaml(configFile);
+        FileConfiguration parsedMessages = loadYaml(messagesFile);
+        parsedMessages.setDefaults(loadBundledMessages());
+        
+        return new Snapshot(parsedConfig, parsedMessages, loadTalkGroups(parsedConfig));
+    }
+    
+    /**
+     * Replaces the active configuration with a parsed one.
+     * TalkGroups whose settings did not change keep their existing instance.
+     * 
+     * @param snapshot The parsed configuration
+     * @return The changes between the previous and the new TalkGroups
+     */
+    public TalkGroupDiff apply(Snapshot snapshot) {
+        TalkGroupRegistry current = registry;
+        TalkGroupDiff diff = TalkGroupDiff.compute(current.getAll(), snapshot.talkGroups);
+        
+        config = snapshot.config;
+        messages = snapshot.messages;
+        registry = new TalkGroupRegistry(diff.getResult(), current.getGeneration() + 1);
+        
+        return diff;
+    }
+    
+    /**
+     * Loads a YAML file, failing on syntax errors.
+     * 
+     * @param file The file to load
+     * @return The loaded configuration
+     */
+    private FileConfiguration loadYaml(File file) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.load(file);
+        } catch (IOException | InvalidConfigurationException e) {
+            throw new CompletionException("Failed to load " + file.getName(), e);
+        }
+        return yaml;
+    }
+    
+    /**
+     * Loads the messages.yml shipped in the jar, used as fallback for
+     * keys missing from an older messages.yml on disk.
+     * 
+     * @return The bundled messages
+     */
+    private YamlConfiguration loadBundledMessages() {
+        InputStream stream = plugin.getResource("messages.yml");
+        if (stream == null) {
+            return new YamlConfiguration();
+        }
+        
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return YamlConfiguration.loadConfiguration(reader);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read bundled messages.yml", e);
+            return new YamlConfiguration();
+        }
     }
     
     /**
      * Loads TalkGroups from the configuration.
+     * 
+     * @param config The configuration to read from
+     * @return Map of TalkGroup ID to TalkGroup, in configuration order
      */
-    private void loadTalkGroups() {
+    private Map<String, TalkGroup> loadTalkGroups(FileConfiguration config) {
+        Map<String, TalkGroup> groups = new LinkedHashMap<>();
         ConfigurationSection groupsSection = config.getConfigurationSection("talkgroups");
         if (groupsSection == null) {
             plugin.getLogger().warning("No talkgroups section found in config.yml!");
-            return;
+            return groups;
         }
         
         for (String groupId : groupsSection.getKeys(false)) {
             try {
                 TalkGroup group = loadTalkGroup(groupId, groupsSection.getConfigurationSection(groupId));
-                talkGroups.put(groupId, group);
-                aliasToId.put(group.getAlias().toLowerCase(), groupId);
-                plugin.getLogger().info("Loaded TalkGroup: " + groupId + " (/" + group.getAlias() + ")");
+                groups.put(groupId, group);
             } catch (Exception e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to load TalkGroup: " + groupId, e);
             }
         }
         
-        plugin.getLogger().info("Loaded " + talkGroups.size() + " TalkGroup(s)");
+        return groups;
     }
     
     /**
@@ -125,7 +197,14 @@ public class ConfigManager {
                 .notify(section.getBoolean("notify", false))
                 .notifyDelay(section.getInt("notify-delay", 60))
                 .alias(section.getString("alias", id))
-                .suffix(section.getString("suffix", ""));
+                .suffix(section.getString("suffix", ""))
+                .radius(section.getInt("radius", 0))
+                .quickPrefix(section.getString("quick-prefix", ""))
+                .duplicateWindow(section.getInt("flood.duplicate-window", 0))
+                .floodLimit(section.getInt("flood.max-messages", 0), section.getInt("flood.per-seconds", 5))
+                .inbox(section.getBoolean("inbox", false))
+                .priority(loadPriority(id, section.getString("priority", "normal")))
+                .worlds(section.getStringList("worlds"));
         
         // Handle prefix - default to name if not specified
         if (section.contains("prefix")) {
@@ -134,9 +213,50 @@ public class ConfigManager {
             builder.prefix(section.getString("name", id));
         }
         
+        ConfigurationSection filterSection = section.getConfigurationSection("filter");
+        if (filterSection != null) {
+            builder.filter(loadFilter(id, filterSection));
+        }
+        
         return builder.build();
     }
     
+    /**
+     * Parses the priority of a TalkGroup.
+     * 
+     * @param id The TalkGroup ID
+     * @param name The configured priority name
+     * @return The priority, normal if the name is unknown
+     */
+    private TalkGroup.Priority loadPriority(String id, String name) {
+        TalkGroup.Priority priority = TalkGroup.Priority.parse(name);
+        if (priority == null) {
+            plugin.getLogger().warning("Unknown priority '" + name + "' for TalkGroup " + id + ", using normal");
+            priority = TalkGroup.Priority.NORMAL;
+        }
+        return priority;
+    }
+    
+    /**
+     * Compiles the blocked terms of a TalkGroup. This runs with the rest of
+     * the parsing, so reloads never compile on the main thread.
+     * 
+     * @param id The TalkGroup ID
+     * @param section The filter configuration section
+     * @return The compiled filter, or null if no terms are configured
+     */
+    private ContentFilter loadFilter(String id, ConfigurationSection section) {
+        String actionName = section.getString("action", "censor");
+        ContentFilter.Action action = ContentFilter.Action.parse(actionName);
+        if (action == null) {
+            plugin.getLogger().warning("Unknown filter action '" + actionName + "' for TalkGroup " + id
+                    + ", using censor");
+            action = ContentFilter.Action.CENSOR;
+        }
+        
+        return ContentFilter.compile(section.getStringList("words"), action, section.getBoolean("leetspeak", false));
+    }
+    
     /**
      * Gets a TalkGroup by its ID.
      * 
@@ -144,7 +264,7 @@ public class ConfigManager {
      * @return The TalkGroup, or null if not found
      */
     public TalkGroup getTalkGroup(String id) {
-        return talkGroups.get(id);
+        return registry.get(id);
     }
     
     /**
@@ -154,8 +274,7 @@ public class ConfigManager {
      * @return The TalkGroup, or null if not found
      */
     public TalkGroup getTalkGroupByAlias(String alias) {
-        String id = aliasToId.get(alias.toLowerCase());
-        return id != null ? talkGroups.get(id) : null;
+        return registry.getByAlias(alias);
     }
     
     /**
@@ -164,7 +283,17 @@ public class ConfigManager {
      * @return Map of TalkGroup ID to TalkGroup
      */
     public Map<String, TalkGroup> getAllTalkGroups() {
-        return new HashMap<>(talkGroups);
+        return new HashMap<>(registry.getAll());
+    }
+    
+    /**
+     * Gets the current TalkGroup registry snapshot.
+     * The snapshot never changes; a reload replaces it with a new one.
+     * 
+     * @return The current TalkGroupRegistry
+     */
+    public TalkGroupRegistry getRegistry() {
+        return registry;
     }
     
     /**
@@ -174,7 +303,8 @@ public class ConfigManager {
      * @return The message, or the key if not found
      */
     public String getMessage(String key) {
-        return messages.getString(key, key);
+        String message = messages.getString(key);
+        return message != null ? message : key;
     }
     
     /**
@@ -225,5 +355,19 @@ public class ConfigManager {
             plugin.getLogger().log(Level.SEVERE, "Failed to save messages.yml", e);
         }
     }
+    
+    /**
+     * Configuration parsed from disk but not yet applied.
+     */
+    public static final class Snapshot {
+        private final FileConfiguration config;
+        private final FileConfiguration messages;
+        private final Map<String, TalkGroup> talkGroups;
+        
+        private Snapshot(FileConfiguration config, FileConfiguration messages, Map<String, TalkGroup> talkGroups) {
+            this.config = config;
+            this.messages = messages;
+            this.talkGroups = talkGroups;
+        }
+    }
 }
-
@@ -0,0 +1,147 @@
+package ca.xef5000.talkGroups.config;
+
+import ca.xef5000.talkGroups.TalkGroups;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Watches config.yml and messages.yml and reloads the plugin when they change.
+ * Bursts of file events (editors often write a file several times) are
+ * collapsed into a single reload once the files have been quiet for the
+ * configured debounce window.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ConfigWatcher implements Runnable {
+
+    private static final Set<String> WATCHED_FILES = Set.of("config.yml", "messages.yml");
+
+    private final TalkGroups plugin;
+    private final long debounceMillis;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Creates a new ConfigWatcher instance.
+     *
+     * @param plugin The plugin instance
+     * @param debounceMillis Quiet period in milliseconds before a reload is triggered
+     */
+    public ConfigWatcher(TalkGroups plugin, long debounceMillis) {
+        this.plugin = plugin;
+        this.debounceMillis = Math.max(0L, debounceMillis);
+    }
+
+    /**
+     * Starts watching the plugin data folder.
+     *
+     * @throws IOException if the watch service could not be created
+     */
+    public void start() throws IOException {
+        Path folder = plugin.getDataFolder().toPath();
+        watchService = folder.getFileSystem().newWatchService();
+        folder.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = new Thread(this, "TalkGroups-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching and releases the watch service.
+     */
+    public void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to close config watcher", e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = drain(key);
+
+                // Wait until the files have been quiet for the debounce window
+                while (relevant) {
+                    WatchKey next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    drain(next);
+                }
+
+                if (relevant) {
+                    triggerReload();
+                }
+
+                if (!key.isValid()) {
+                    plugin.getLogger().warning("Config watcher stopped: data folder is no longer accessible");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // Plugin is shutting down
+        }
+    }
+
+    /**
+     * Consumes the pending events of a key and re-arms it.
+     *
+     * @param key The signalled watch key
+     * @return true if a watched file was touched, false otherwise
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (event.context() instanceof Path path
+                    && WATCHED_FILES.contains(path.getFileName().toString())) {
+                relevant = true;
+            }
+        }
+
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Applies the changed files through the regular reload path.
+     */
+    private void triggerReload() {
+        plugin.reloadConfiguration().whenComplete((diff, error) -> {
+            if (error instanceof CancellationException) {
+                return;
+            }
+            if (error != null) {
+                plugin.getLogger().log(Level.WARNING,
+                        "Automatic reload skipped, keeping the current configuration", error);
+            }
+        });
+    }
+}
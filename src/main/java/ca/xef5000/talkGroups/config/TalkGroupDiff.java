@@ -0,0 +1,120 @@
+package ca.xef5000.talkGroups.config;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes what changed between two sets of TalkGroup definitions.
+ * Unchanged channels keep their original instance, so anything keyed
+ * on a TalkGroup survives a reload that did not touch it.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class TalkGroupDiff {
+
+    private final List<TalkGroup> added;
+    private final List<TalkGroup> removed;
+    private final Map<TalkGroup, TalkGroup> changed;
+    private final Map<String, TalkGroup> result;
+
+    private TalkGroupDiff(List<TalkGroup> added, List<TalkGroup> removed,
+                          Map<TalkGroup, TalkGroup> changed, Map<String, TalkGroup> result) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.changed = Collections.unmodifiableMap(changed);
+        this.result = Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Compares the current TalkGroups against freshly parsed ones.
+     *
+     * @param current The TalkGroups currently in use
+     * @param parsed The TalkGroups parsed from disk
+     * @return The differences between both sets
+     */
+    public static TalkGroupDiff compute(Map<String, TalkGroup> current, Map<String, TalkGroup> parsed) {
+        List<TalkGroup> added = new ArrayList<>();
+        List<TalkGroup> removed = new ArrayList<>();
+        Map<TalkGroup, TalkGroup> changed = new LinkedHashMap<>();
+        Map<String, TalkGroup> result = new LinkedHashMap<>();
+
+        for (TalkGroup group : parsed.values()) {
+            TalkGroup existing = current.get(group.getId());
+
+            if (existing == null) {
+                added.add(group);
+                result.put(group.getId(), group);
+            } else if (existing.equals(group)) {
+                // Keep the old instance so caches derived from it stay valid
+                result.put(group.getId(), existing);
+            } else {
+                changed.put(existing, group);
+                result.put(group.getId(), group);
+            }
+        }
+
+        for (TalkGroup group : current.values()) {
+            if (!parsed.containsKey(group.getId())) {
+                removed.add(group);
+            }
+        }
+
+        return new TalkGroupDiff(added, removed, changed, result);
+    }
+
+    /**
+     * Gets the TalkGroups that did not exist before.
+     *
+     * @return List of added TalkGroups
+     */
+    public List<TalkGroup> getAdded() {
+        return added;
+    }
+
+    /**
+     * Gets the TalkGroups that no longer exist.
+     *
+     * @return List of removed TalkGroups
+     */
+    public List<TalkGroup> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Gets the TalkGroups whose settings changed.
+     *
+     * @return Map of previous TalkGroup to its replacement
+     */
+    public Map<TalkGroup, TalkGroup> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Gets the complete set of TalkGroups after applying this diff.
+     *
+     * @return Map of TalkGroup ID to TalkGroup
+     */
+    public Map<String, TalkGroup> getResult() {
+        return result;
+    }
+
+    /**
+     * Checks if no TalkGroup was added, removed or changed.
+     *
+     * @return true if nothing changed, false otherwise
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return added.size() + " added, " + changed.size() + " changed, " + removed.size() + " removed";
+    }
+}
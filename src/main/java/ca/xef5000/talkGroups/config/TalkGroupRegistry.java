@@ -0,0 +1,187 @@
+package ca.xef5000.talkGroups.config;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable snapshot of the loaded TalkGroups.
+ * Every TalkGroup gets a dense index in configuration order, which stays
+ * valid for the lifetime of the snapshot. A reload publishes a new snapshot
+ * with a higher generation, so anything built from indices can tell when
+ * it has to be rebuilt.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public final class TalkGroupRegistry {
+
+    private static final TalkGroupRegistry EMPTY = new TalkGroupRegistry(Collections.emptyMap(), 0);
+
+    private final Map<String, TalkGroup> byId;
+    private final Map<String, TalkGroup> byAlias;
+    private final Map<String, Integer> indexById;
+    private final TalkGroup[] groups;
+    private final int[] nameOrder;
+    private final ChannelPrefixIndex prefixIndex;
+    private final TalkGroup[] quickPrefixed;
+    private final int generation;
+
+    /**
+     * Creates a new registry snapshot.
+     *
+     * @param talkGroups Map of TalkGroup ID to TalkGroup, in configuration order
+     * @param generation The reload generation of this snapshot
+     */
+    TalkGroupRegistry(Map<String, TalkGroup> talkGroups, int generation) {
+        this.byId = Collections.unmodifiableMap(new LinkedHashMap<>(talkGroups));
+        this.groups = talkGroups.values().toArray(new TalkGroup[0]);
+        this.generation = generation;
+
+        Map<String, TalkGroup> aliases = new HashMap<>();
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < groups.length; i++) {
+            aliases.put(groups[i].getAlias().toLowerCase(), groups[i]);
+            indices.put(groups[i].getId(), i);
+        }
+        this.byAlias = aliases;
+        this.indexById = indices;
+
+        // Sorted once per snapshot so GUIs never sort on open; ties keep configuration order
+        Integer[] order = new Integer[groups.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> groups[i].getName()));
+        this.nameOrder = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            nameOrder[i] = order[i];
+        }
+
+        this.prefixIndex = new ChannelPrefixIndex(groups);
+
+        // Longest quick prefix first, so "!!" wins over "!"
+        this.quickPrefixed = Arrays.stream(groups)
+                .filter(group -> !group.getQuickPrefix().isEmpty())
+                .sorted(Comparator.comparingInt((TalkGroup group) -> group.getQuickPrefix().length()).reversed())
+                .toArray(TalkGroup[]::new);
+    }
+
+    /**
+     * Gets the registry used before any configuration is loaded.
+     *
+     * @return An empty registry
+     */
+    static TalkGroupRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets a TalkGroup by its ID.
+     *
+     * @param id The TalkGroup ID
+     * @return The TalkGroup, or null if not found
+     */
+    public TalkGroup get(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Gets a TalkGroup by its alias, ignoring case.
+     *
+     * @param alias The command alias
+     * @return The TalkGroup, or null if not found
+     */
+    public TalkGroup getByAlias(String alias) {
+        return byAlias.get(alias.toLowerCase());
+    }
+
+    /**
+     * Gets the TalkGroup whose quick prefix starts a chat message.
+     *
+     * @param message The chat message
+     * @param filter Which TalkGroups may match, for example those the sender can access
+     * @return The allowed TalkGroup with the longest matching quick prefix, or null if none matches
+     */
+    public TalkGroup getByQuickPrefix(String message, Predicate<TalkGroup> filter) {
+        for (TalkGroup group : quickPrefixed) {
+            if (message.startsWith(group.getQuickPrefix()) && filter.test(group)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the TalkGroup at an index.
+     *
+     * @param index The index, between 0 and {@link #size()} (exclusive)
+     * @return The TalkGroup
+     */
+    public TalkGroup get(int index) {
+        return groups[index];
+    }
+
+    /**
+     * Gets the index of a TalkGroup in this snapshot.
+     *
+     * @param id The TalkGroup ID
+     * @return The index, or -1 if the TalkGroup is not part of this snapshot
+     */
+    public int indexOf(String id) {
+        Integer index = indexById.get(id);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Gets the index of the TalkGroup at a position in display-name order.
+     *
+     * @param position The position, between 0 and {@link #size()} (exclusive)
+     * @return The index of the TalkGroup, usable with {@link #get(int)}
+     */
+    public int indexByName(int position) {
+        return nameOrder[position];
+    }
+
+    /**
+     * Gets the prefix index of TalkGroup IDs, used for tab completion.
+     *
+     * @return The prefix index
+     */
+    public ChannelPrefixIndex getPrefixIndex() {
+        return prefixIndex;
+    }
+
+    /**
+     * Gets the number of TalkGroups.
+     *
+     * @return The TalkGroup count
+     */
+    public int size() {
+        return groups.length;
+    }
+
+    /**
+     * Gets all TalkGroups in configuration order.
+     *
+     * @return Unmodifiable map of TalkGroup ID to TalkGroup
+     */
+    public Map<String, TalkGroup> getAll() {
+        return byId;
+    }
+
+    /**
+     * Gets the reload generation of this snapshot.
+     *
+     * @return The generation, increasing with every applied reload
+     */
+    public int getGeneration() {
+        return generation;
+    }
+}
@@ -1,17 +1,38 @@
 package ca.xef5000.talkGroups.database;
 
 import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.metrics.Histogram;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.metrics.Tracer;
+import ca.xef5000.talkGroups.model.InboxMessage;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
  * Manages SQLite database operations for persistent player data.
+ * All operations share one connection and take turns on it, so a
+ * transaction never commits or rolls back another operation's writes.
  * 
  * @author TalkGroups
  * @version 1.0.0
@@ -21,6 +42,15 @@ public class DatabaseManager {
     private final TalkGroups plugin;
     private Connection connection;
     private final File databaseFile;
+    private final ReentrantLock lock;
+    private final AtomicInteger pending;
+    private final AtomicInteger skipped;
+    private volatile boolean closing;
+    private final Histogram loadTimer;
+    private final Histogram saveTimer;
+    private final Histogram removeTimer;
+    private final Histogram clearTimer;
+    private final Histogram inboxTimer;
     
     /**
      * Creates a new DatabaseManager instance.
@@ -30,6 +60,17 @@ public class DatabaseManager {
     public DatabaseManager(TalkGroups plugin) {
         this.plugin = plugin;
         this.databaseFile = new File(plugin.getDataFolder(), "data.db");
+        this.lock = new ReentrantLock();
+        this.pending = new AtomicInteger();
+        this.skipped = new AtomicInteger();
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        this.loadTimer = metrics.timer(MetricsRegistry.DB_LOAD);
+        this.saveTimer = metrics.timer(MetricsRegistry.DB_SAVE);
+        this.removeTimer = metrics.timer(MetricsRegistry.DB_REMOVE);
+        this.clearTimer = metrics.timer(MetricsRegistry.DB_CLEAR);
+        this.inboxTimer = metrics.timer(MetricsRegistry.DB_INBOX);
+        metrics.gauge(MetricsRegistry.DB_PENDING, pending::get);
     }
     
     /**
@@ -68,8 +109,29 @@ public class DatabaseManager {
             "PRIMARY KEY (player_uuid, channel_id)" +
             ")";
         
+        String createInboxTable =
+            "CREATE TABLE IF NOT EXISTS inbox (" +
+            "id INTEGER PRIMARY KEY, " +
+            "player_uuid TEXT NOT NULL, " +
+            "channel_id TEXT NOT NULL, " +
+            "line TEXT NOT NULL, " +
+            "created_at INTEGER NOT NULL" +
+            ")";
+        
+        String createInboxMembersTable =
+            "CREATE TABLE IF NOT EXISTS inbox_members (" +
+            "channel_id TEXT NOT NULL, " +
+            "player_uuid TEXT NOT NULL, " +
+            "PRIMARY KEY (channel_id, player_uuid)" +
+            ")";
+        
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(createMutedChannelsTable);
+            stmt.execute(createInboxTable);
+            // Paging, capacity pruning and TTL pruning each delete along an index
+            stmt.execute("CREATE INDEX IF NOT EXISTS inbox_player ON inbox (player_uuid, id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS inbox_created ON inbox (created_at)");
+            stmt.execute(createInboxMembersTable);
         }
     }
     
@@ -80,7 +142,7 @@ public class DatabaseManager {
      * @return CompletableFuture containing the set of muted channel IDs
      */
     public CompletableFuture<Set<String>> loadMutedChannels(UUID playerId) {
-        return CompletableFuture.supplyAsync(() -> {
+        return submit(MetricsRegistry.DB_LOAD, loadTimer, playerId, () -> {
             Set<String> mutedChannels = new HashSet<>();
             String query = "SELECT channel_id FROM muted_channels WHERE player_uuid = ?";
             
@@ -108,16 +170,13 @@ public class DatabaseManager {
      * @return CompletableFuture that completes when the operation is done
      */
     public CompletableFuture<Void> saveMutedChannel(UUID playerId, String channelId) {
-        return CompletableFuture.runAsync(() -> {
-            String insert = "INSERT OR IGNORE INTO muted_channels (player_uuid, channel_id) VALUES (?, ?)";
-            
-            try (PreparedStatement stmt = connection.prepareStatement(insert)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, channelId);
-                stmt.executeUpdate();
+        return submit(MetricsRegistry.DB_SAVE, saveTimer, playerId, () -> {
+            try {
+                insertMutedChannel(playerId, channelId);
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to save muted channel for " + playerId, e);
             }
+            return null;
         });
     }
     
@@ -129,19 +188,63 @@ public class DatabaseManager {
      * @return CompletableFuture that completes when the operation is done
      */
     public CompletableFuture<Void> removeMutedChannel(UUID playerId, String channelId) {
-        return CompletableFuture.runAsync(() -> {
-            String delete = "DELETE FROM muted_channels WHERE player_uuid = ? AND channel_id = ?";
-            
-            try (PreparedStatement stmt = connection.prepareStatement(delete)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, channelId);
-                stmt.executeUpdate();
+        return submit(MetricsRegistry.DB_REMOVE, removeTimer, playerId, () -> {
+            try {
+                deleteMutedChannel(playerId, channelId);
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to remove muted channel for " + playerId, e);
             }
+            return null;
         });
     }
     
+    /**
+     * Stores the mute state of a channel for a player asynchronously.
+     * Unlike {@link #saveMutedChannel} and {@link #removeMutedChannel}, a
+     * failed write completes the future exceptionally so callers can roll back.
+     * 
+     * @param playerId The player's UUID
+     * @param channelId The channel ID
+     * @param muted Whether the channel should be muted
+     * @return CompletableFuture that completes when the write succeeded
+     */
+    public CompletableFuture<Void> updateMutedChannel(UUID playerId, String channelId, boolean muted) {
+        return submit(muted ? MetricsRegistry.DB_SAVE : MetricsRegistry.DB_REMOVE,
+                muted ? saveTimer : removeTimer, playerId, () -> {
+            try {
+                if (muted) {
+                    insertMutedChannel(playerId, channelId);
+                } else {
+                    deleteMutedChannel(playerId, channelId);
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to update muted channel for " + playerId, e);
+                throw new CompletionException(e);
+            }
+            return null;
+        });
+    }
+    
+    private void insertMutedChannel(UUID playerId, String channelId) throws SQLException {
+        String insert = "INSERT OR IGNORE INTO muted_channels (player_uuid, channel_id) VALUES (?, ?)";
+        
+        try (PreparedStatement stmt = connection.prepareStatement(insert)) {
+            stmt.setString(1, playerId.toString());
+            stmt.setString(2, channelId);
+            stmt.executeUpdate();
+        }
+    }
+    
+    private void deleteMutedChannel(UUID playerId, String channelId) throws SQLException {
+        String delete = "DELETE FROM muted_channels WHERE player_uuid = ? AND channel_id = ?";
+        
+        try (PreparedStatement stmt = connection.prepareStatement(delete)) {
+            stmt.setString(1, playerId.toString());
+            stmt.setString(2, channelId);
+            stmt.executeUpdate();
+        }
+    }
+    
     /**
      * Clears all muted channels for a player asynchronously.
      * 
@@ -149,7 +252,7 @@ public class DatabaseManager {
      * @return CompletableFuture that completes when the operation is done
      */
     public CompletableFuture<Void> clearMutedChannels(UUID playerId) {
-        return CompletableFuture.runAsync(() -> {
+        return submit(MetricsRegistry.DB_CLEAR, clearTimer, playerId, () -> {
             String delete = "DELETE FROM muted_channels WHERE player_uuid = ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(delete)) {
@@ -158,23 +261,462 @@ public class DatabaseManager {
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to clear muted channels for " + playerId, e);
             }
+            return null;
+        });
+    }
+    
+    /**
+     * Loads the members of every channel inbox asynchronously.
+     * 
+     * @return CompletableFuture containing the member UUIDs by channel ID
+     */
+    public CompletableFuture<Map<String, Set<UUID>>> loadInboxMembers() {
+        return submit(MetricsRegistry.DB_INBOX, inboxTimer, "members", () -> {
+            Map<String, Set<UUID>> members = new HashMap<>();
+            String query = "SELECT channel_id, player_uuid FROM inbox_members";
+            
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(query)) {
+                while (rs.next()) {
+                    members.computeIfAbsent(rs.getString("channel_id"), id -> new HashSet<>())
+                            .add(UUID.fromString(rs.getString("player_uuid")));
+                }
+            } catch (SQLException | IllegalArgumentException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load inbox members", e);
+            }
+            
+            return members;
+        });
+    }
+    
+    /**
+     * Adds or removes a member of a channel inbox asynchronously.
+     * 
+     * @param channelId The channel ID
+     * @param playerId The player's UUID
+     * @param member Whether the player should receive the channel's messages while offline
+     * @return CompletableFuture that completes when the operation is done
+     */
+    public CompletableFuture<Void> updateInboxMember(String channelId, UUID playerId, boolean member) {
+        return submit(MetricsRegistry.DB_INBOX, inboxTimer, playerId, () -> {
+            String update = member
+                    ? "INSERT OR IGNORE INTO inbox_members (channel_id, player_uuid) VALUES (?, ?)"
+                    : "DELETE FROM inbox_members WHERE channel_id = ? AND player_uuid = ?";
+            
+            try (PreparedStatement stmt = connection.prepareStatement(update)) {
+                stmt.setString(1, channelId);
+                stmt.setString(2, playerId.toString());
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to update inbox member " + playerId, e);
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Stores inbox messages asynchronously, see {@link #writeInbox}.
+     * 
+     * @param messages The messages, oldest first
+     * @param capacity The most messages kept per player
+     * @return CompletableFuture that completes when the operation is done
+     */
+    public CompletableFuture<Void> saveInbox(List<InboxMessage> messages, int capacity) {
+        return submit(MetricsRegistry.DB_INBOX, inboxTimer, messages.size() + " message(s)", () -> {
+            try {
+                writeInbox(messages, capacity);
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to save " + messages.size() + " inbox message(s)", e);
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Stores inbox messages in a single transaction with one batched insert,
+     * then deletes the oldest messages of each affected player beyond the
+     * capacity. Other operations wait until it has finished.
+     * 
+     * @param messages The messages, oldest first
+     * @param capacity The most messages kept per player
+     * @throws SQLException if the transaction failed and was rolled back
+     */
+    private void writeInbox(List<InboxMessage> messages, int capacity) throws SQLException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        
+        String insert = "INSERT INTO inbox (player_uuid, channel_id, line, created_at) VALUES (?, ?, ?, ?)";
+        // Finds the newest message beyond the capacity along the (player_uuid, id) index
+        String prune = "DELETE FROM inbox WHERE player_uuid = ? AND id <= "
+                + "(SELECT id FROM inbox WHERE player_uuid = ? ORDER BY id DESC LIMIT 1 OFFSET ?)";
+        
+        transaction(() -> {
+            try (PreparedStatement insertStmt = connection.prepareStatement(insert);
+                 PreparedStatement pruneStmt = connection.prepareStatement(prune)) {
+                Set<String> players = new LinkedHashSet<>();
+                for (InboxMessage message : messages) {
+                    String playerId = message.playerId().toString();
+                    insertStmt.setString(1, playerId);
+                    insertStmt.setString(2, message.channelId());
+                    insertStmt.setString(3, message.line());
+                    insertStmt.setLong(4, message.createdAt());
+                    insertStmt.addBatch();
+                    players.add(playerId);
+                }
+                
+                for (String playerId : players) {
+                    pruneStmt.setString(1, playerId);
+                    pruneStmt.setString(2, playerId);
+                    pruneStmt.setInt(3, capacity);
+                    pruneStmt.addBatch();
+                }
+                
+                insertStmt.executeBatch();
+                pruneStmt.executeBatch();
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Reads the oldest page of a player's inbox asynchronously without
+     * removing it, in one transaction so no capacity pruning runs in between.
+     * The page is removed with {@link #deleteInbox} once it has been shown.
+     * 
+     * @param playerId The player's UUID
+     * @param limit The most messages to read
+     * @return CompletableFuture containing the page and the number of messages left
+     */
+    public CompletableFuture<InboxPage> readInbox(UUID playerId, int limit) {
+        return submit(MetricsRegistry.DB_INBOX, inboxTimer, playerId, () -> {
+            String count = "SELECT COUNT(*) FROM inbox WHERE player_uuid = ?";
+            String query = "SELECT id, channel_id, line, created_at FROM inbox WHERE player_uuid = ? "
+                    + "ORDER BY id LIMIT ?";
+            
+            try {
+                return transaction(() -> {
+                    List<InboxMessage> messages = new ArrayList<>(limit);
+                    int total;
+                    long lastId = 0L;
+                    try (PreparedStatement countStmt = connection.prepareStatement(count);
+                         PreparedStatement queryStmt = connection.prepareStatement(query)) {
+                        countStmt.setString(1, playerId.toString());
+                        try (ResultSet rs = countStmt.executeQuery()) {
+                            total = rs.next() ? rs.getInt(1) : 0;
+                        }
+                        if (total == 0) {
+                            return new InboxPage(messages, 0, 0L);
+                        }
+                        
+                        queryStmt.setString(1, playerId.toString());
+                        queryStmt.setInt(2, limit);
+                        try (ResultSet rs = queryStmt.executeQuery()) {
+                            while (rs.next()) {
+                                lastId = rs.getLong("id");
+                                messages.add(new InboxMessage(playerId, rs.getString("channel_id"),
+                                        rs.getString("line"), rs.getLong("created_at")));
+                            }
+                        }
+                    }
+                    return new InboxPage(messages, Math.max(0, total - messages.size()), lastId);
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to read the inbox of " + playerId, e);
+                return new InboxPage(List.of(), 0, 0L);
+            }
+        });
+    }
+    
+    /**
+     * Removes a page that was shown from a player's inbox asynchronously.
+     * Messages stored after the page was read have higher IDs and are kept.
+     * 
+     * @param playerId The player's UUID
+     * @param lastId The ID of the last message on the page
+     * @return CompletableFuture that completes when the page is removed
+     */
+    public CompletableFuture<Void> deleteInbox(UUID playerId, long lastId) {
+        return submit(MetricsRegistry.DB_INBOX, inboxTimer, playerId, () -> {
+            String delete = "DELETE FROM inbox WHERE player_uuid = ? AND id <= ?";
+            
+            try (PreparedStatement stmt = connection.prepareStatement(delete)) {
+                stmt.setString(1, playerId.toString());
+                stmt.setLong(2, lastId);
+                stmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to remove a page from the inbox of " + playerId, e);
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Deletes inbox messages older than a cutoff asynchronously.
+     * 
+     * @param cutoff The epoch millis before which messages are deleted
+     * @return CompletableFuture containing the number of deleted messages
+     */
+    public CompletableFuture<Integer> pruneInbox(long cutoff) {
+        return submit(MetricsRegistry.DB_INBOX, inboxTimer, "prune", () -> {
+            String delete = "DELETE FROM inbox WHERE created_at < ?";
+            
+            try (PreparedStatement stmt = connection.prepareStatement(delete)) {
+                stmt.setLong(1, cutoff);
+                return stmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to prune inbox messages", e);
+                return 0;
+            }
         });
     }
     
     /**
-     * Closes the database connection.
+     * Runs a database operation on the plugin's async executor, recording its latency
+     * and counting it as pending until it completes. With tracing enabled,
+     * slow operations are traced with their queue wait and execution time.
+     * Operations run one at a time on the connection; the wait for it counts
+     * as queue time. Once {@link #stopAccepting()} was called, new operations
+     * are rejected and queued ones are skipped, since the final save
+     * supersedes them.
+     *
+     * @param name The operation name used in traces
+     * @param timer The histogram to record the latency in
+     * @param playerId The player the operation acts on
+     * @param operation The operation
+     * @param <T> The result type
+     * @return CompletableFuture containing the operation's result
+     */
+    private <T> CompletableFuture<T> submit(String name, Histogram timer, UUID playerId, Supplier<T> operation) {
+        return submit(name, timer, playerId.toString(), operation);
+    }
+    
+    /**
+     * Runs a database operation that does not act on a single player, see
+     * {@link #submit(String, Histogram, UUID, Supplier)}.
+     *
+     * @param name The operation name used in traces
+     * @param timer The histogram to record the latency in
+     * @param subject What the operation acts on, shown in traces
+     * @param operation The operation
+     * @param <T> The result type
+     * @return CompletableFuture containing the operation's result
+     */
+    private <T> CompletableFuture<T> submit(String name, Histogram timer, String subject, Supplier<T> operation) {
+        if (closing) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Database is shutting down"));
+        }
+        
+        Tracer tracer = plugin.getTracer();
+        long submitted = System.nanoTime();
+        pending.incrementAndGet();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (closing) {
+                    skipped.incrementAndGet();
+                    pending.decrementAndGet();
+                    throw new RejectedExecutionException("Database is shutting down");
+                }
+                
+                Tracer.Trace trace = tracer.isEnabled() ? tracer.begin(name, subject, submitted) : null;
+                lock.lock();
+                if (trace != null) {
+                    trace.stage("queue");
+                }
+                
+                long start = System.nanoTime();
+                try {
+                    return operation.get();
+                } finally {
+                    lock.unlock();
+                    timer.recordSince(start);
+                    pending.decrementAndGet();
+                    
+                    if (trace != null) {
+                        trace.stage("execute");
+                        trace.finish();
+                    }
+                }
+            }, plugin.getAsyncExecutor());
+        } catch (RejectedExecutionException e) {
+            // The executor is shutting down, so the operation never runs
+            pending.decrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Gets the number of database operations submitted but not yet completed.
+     *
+     * @return The pending operation count
+     */
+    public int getPendingOperations() {
+        return pending.get();
+    }
+    
+    /**
+     * Stops accepting operations. Operations submitted afterwards fail with a
+     * {@link RejectedExecutionException}, and operations still queued are
+     * skipped when they reach the executor.
+     */
+    public void stopAccepting() {
+        closing = true;
+    }
+    
+    /**
+     * Gets the number of queued operations skipped after {@link #stopAccepting()}.
+     *
+     * @return The skipped operation count
+     */
+    public int getSkippedOperations() {
+        return skipped.get();
+    }
+    
+    /**
+     * Waits until no operation is pending or running.
+     *
+     * @param deadlineNanos The {@link System#nanoTime()} after which to give up
+     * @return true if the database became idle before the deadline
+     */
+    public boolean awaitIdle(long deadlineNanos) {
+        while (pending.get() > 0) {
+            if (System.nanoTime() - deadlineNanos >= 0L) {
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000L);
+        }
+        return true;
+    }
+    
+    /**
+     * Replaces the stored muted channels of the given players in a single
+     * transaction, with all deletes and inserts sent as batches. Players not
+     * in the map are left untouched. Other operations wait until it has
+     * finished. Only used by the shutdown drain.
+     *
+     * @param mutedChannels The muted channel IDs by player
+     * @throws SQLException if the transaction failed and was rolled back
+     */
+    public void writeSnapshot(Map<UUID, Set<String>> mutedChannels) throws SQLException {
+        String delete = "DELETE FROM muted_channels WHERE player_uuid = ?";
+        String insert = "INSERT OR IGNORE INTO muted_channels (player_uuid, channel_id) VALUES (?, ?)";
+        
+        transaction(() -> {
+            try (PreparedStatement deleteStmt = connection.prepareStatement(delete);
+                 PreparedStatement insertStmt = connection.prepareStatement(insert)) {
+                for (Map.Entry<UUID, Set<String>> entry : mutedChannels.entrySet()) {
+                    String playerId = entry.getKey().toString();
+                    deleteStmt.setString(1, playerId);
+                    deleteStmt.addBatch();
+                    
+                    for (String channelId : entry.getValue()) {
+                        insertStmt.setString(1, playerId);
+                        insertStmt.setString(2, channelId);
+                        insertStmt.addBatch();
+                    }
+                }
+                
+                deleteStmt.executeBatch();
+                insertStmt.executeBatch();
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Runs work in a transaction while holding the connection, committing it
+     * if the work succeeds and rolling it back otherwise.
+     *
+     * @param work The work
+     * @param <T> The result type
+     * @return The work's result
+     * @throws SQLException if the transaction failed and was rolled back
+     */
+    private <T> T transaction(SqlWork<T> work) throws SQLException {
+        lock.lock();
+        try {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run();
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Flushes committed data to disk: checkpoints the write-ahead log if one
+     * is in use and fsyncs the database file.
+     *
+     * @throws SQLException if the checkpoint failed
+     * @throws IOException if the file could not be synced
+     */
+    public void sync() throws SQLException, IOException {
+        lock.lock();
+        try {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+            
+            try (FileChannel channel = FileChannel.open(databaseFile.toPath(), StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Closes the database connection, after the running operation if any.
      */
     public void close() {
         if (connection != null) {
+            lock.lock();
             try {
                 connection.close();
                 plugin.getLogger().info("Database connection closed");
             } catch (SQLException e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to close database connection", e);
+            } finally {
+                lock.unlock();
             }
         }
     }
     
+    /**
+     * Closes the database connection unless an operation still holds it
+     * after the given time.
+     *
+     * @param timeoutMillis The longest time to wait for the running operation
+     * @return true if the connection was closed or there was none
+     */
+    public boolean close(long timeoutMillis) {
+        if (connection == null) {
+            return true;
+        }
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            close();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
     /**
      * Gets the database connection.
      * 
@@ -196,5 +738,24 @@ public class DatabaseManager {
             return false;
         }
     }
+    
+    /**
+     * Database work that may fail with an {@link SQLException}.
+     *
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+    
+    /**
+     * A page read from a player's inbox.
+     * 
+     * @param messages The messages on the page, oldest first
+     * @param remaining The number of messages still in the inbox
+     * @param lastId The ID of the last message on the page, 0 if it is empty
+     */
+    public record InboxPage(List<InboxMessage> messages, int remaining, long lastId) {
+    }
 }
-
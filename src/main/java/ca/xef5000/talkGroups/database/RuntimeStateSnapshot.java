@@ -0,0 +1,423 @@
+package ca.xef5000.talkGroups.database;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.model.PlayerData;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Keeps the cooldowns, missed message counts and notification times of
+ * players across restarts. These only live in memory, so the state of all
+ * loaded players is periodically written to runtime-state.bin: copied on the
+ * main thread, then written on the background executor to a temporary file
+ * that is synced and renamed over the previous one. A crash therefore loses
+ * at most one interval. The state of a player who quits is kept as well,
+ * so it survives until they rejoin even if they quit between two snapshots.
+ *
+ * <p>On startup the file is read into memory and only its header is checked.
+ * It is not memory-mapped, since a mapped file cannot be renamed over on
+ * Windows. The players are indexed by UUID in sorted order, so the record of
+ * a player is found by binary search and decoded when their data is loaded;
+ * players who do not rejoin cost nothing. Records of players who have not
+ * rejoined yet are carried over into the next snapshot until they are older
+ * than the configured maximum age.
+ *
+ * <p>File layout, big-endian: a header (magic, version, time written, player
+ * count), the index (UUID, record offset and length per player) and the
+ * records (time saved, channel count, then per channel the UTF-8 channel ID,
+ * cooldown end, missed message count and last notification time).
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class RuntimeStateSnapshot {
+
+    private static final int MAGIC = 0x54475253; // "TGRS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int INDEX_ENTRY_BYTES = 24;
+    private static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparingLong(UUID::getMostSignificantBits)
+            .thenComparingLong(UUID::getLeastSignificantBits);
+
+    private final TalkGroups plugin;
+    private final Path file;
+    private final long maxAgeMillis;
+    private final AtomicBoolean writing;
+    private final Object writeLock;
+    private BukkitTask task;
+
+    // The snapshot found on startup and the records of players who quit since; guarded by this
+    private ByteBuffer previous;
+    private int previousCount;
+    private BitSet restored;
+    private final Map<UUID, byte[]> departed;
+
+    /**
+     * Creates a new RuntimeStateSnapshot instance.
+     *
+     * @param plugin The plugin instance
+     * @param file The snapshot file
+     * @param maxAgeHours Hours after which the state of a player who has not rejoined is dropped
+     */
+    public RuntimeStateSnapshot(TalkGroups plugin, Path file, int maxAgeHours) {
+        this.plugin = plugin;
+        this.file = file;
+        this.maxAgeMillis = TimeUnit.HOURS.toMillis(Math.max(1, maxAgeHours));
+        this.writing = new AtomicBoolean();
+        this.writeLock = new Object();
+        this.departed = new HashMap<>();
+    }
+
+    /**
+     * Reads the snapshot left by the previous run, if any. Only the header is
+     * checked; records are decoded as players rejoin.
+     */
+    public synchronized void open() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+
+        try {
+            long size = Files.size(file);
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                plugin.getLogger().warning("Ignoring " + file.getFileName() + ": invalid size " + size);
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            int count = buffer.getInt(8 + 8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || count < 0 || HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES > buffer.capacity()) {
+                plugin.getLogger().warning("Ignoring " + file.getFileName() + ": unknown format");
+                return;
+            }
+            if (System.currentTimeMillis() - buffer.getLong(8) > maxAgeMillis) {
+                return;
+            }
+
+            previous = buffer;
+            previousCount = count;
+            restored = new BitSet(count);
+            plugin.getLogger().info("Found runtime state of " + count + " player(s) from the last run");
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Restores the state a player had when they last quit, or else in the
+     * last snapshot, into their newly created data. Each state is restored
+     * at most once. May be called from any thread.
+     *
+     * @param data The player's new data
+     */
+    public synchronized void restore(PlayerData data) {
+        byte[] record = departed.remove(data.getPlayerId());
+        if (record != null) {
+            decode(ByteBuffer.wrap(record), 0, data);
+            return;
+        }
+        if (previous == null) {
+            return;
+        }
+
+        int entry = find(data.getPlayerId());
+        if (entry < 0 || restored.get(entry)) {
+            return;
+        }
+        restored.set(entry);
+
+        try {
+            decode(previous, previous.getInt(HEADER_BYTES + entry * INDEX_ENTRY_BYTES + 16), data);
+        } catch (IndexOutOfBoundsException e) {
+            plugin.getLogger().warning("Dropping " + file.getFileName() + ": record of "
+                    + data.getPlayerId() + " is corrupt");
+            previous = null;
+        }
+    }
+
+    /**
+     * Keeps the state of a player who is quitting, so the next snapshots
+     * include it until they rejoin. Must be called on the main thread.
+     *
+     * @param data The player's data
+     */
+    public void retain(PlayerData data) {
+        byte[] record = new RecordEncoder().encode(data, System.currentTimeMillis());
+        synchronized (this) {
+            if (record != null) {
+                departed.put(data.getPlayerId(), record);
+            } else {
+                departed.remove(data.getPlayerId());
+            }
+        }
+    }
+
+    /**
+     * Drops the state kept for a player who quit, for example because they
+     * rejoined while their data was still loaded and is therefore current.
+     *
+     * @param playerId The player's UUID
+     */
+    public synchronized void forget(UUID playerId) {
+        departed.remove(playerId);
+    }
+
+    private void decode(ByteBuffer buffer, int offset, PlayerData data) {
+        if (System.currentTimeMillis() - buffer.getLong(offset) > maxAgeMillis) {
+            return;
+        }
+        int channels = buffer.getShort(offset + 8) & 0xFFFF;
+        int position = offset + 10;
+        for (int i = 0; i < channels; i++) {
+            int idLength = buffer.getShort(position) & 0xFFFF;
+            byte[] id = new byte[idLength];
+            buffer.get(position + 2, id);
+            position += 2 + idLength;
+            data.restoreRuntimeState(new String(id, StandardCharsets.UTF_8),
+                    buffer.getLong(position), buffer.getInt(position + 8), buffer.getLong(position + 12));
+            position += 20;
+        }
+    }
+
+    /**
+     * Starts writing snapshots on a timer.
+     *
+     * @param intervalSeconds Seconds between snapshots
+     */
+    public void start(int intervalSeconds) {
+        long ticks = Math.max(1, intervalSeconds) * 20L;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::writeAsync, ticks, ticks);
+    }
+
+    /**
+     * Stops the timer and writes a final snapshot on the calling thread. Must
+     * be called on the main thread before the background executor shuts down.
+     */
+    public void stop() {
+        if (task == null) {
+            return;
+        }
+        task.cancel();
+        task = null;
+
+        Map<UUID, byte[]> records = capture(plugin.getPlayerDataManager().getCachedPlayerData());
+        try {
+            int players = write(records);
+            plugin.getLogger().info("Saved runtime state of " + players + " player(s)");
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Copies the state of all loaded players and writes it in the background,
+     * unless the previous write is still running.
+     */
+    private void writeAsync() {
+        if (!writing.compareAndSet(false, true)) {
+            return;
+        }
+
+        Map<UUID, byte[]> records = capture(plugin.getPlayerDataManager().getCachedPlayerData());
+        try {
+            plugin.getAsyncExecutor().execute(() -> {
+                try {
+                    write(records);
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Failed to write " + file.getFileName(), e);
+                } finally {
+                    writing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; stop() writes the final snapshot
+            writing.set(false);
+        }
+    }
+
+    /**
+     * Encodes the state of the given players. Must be called on the main
+     * thread, which owns the PlayerData.
+     *
+     * @param players The loaded players
+     * @return The encoded record of each player with any state
+     */
+    Map<UUID, byte[]> capture(Collection<PlayerData> players) {
+        long now = System.currentTimeMillis();
+        Map<UUID, byte[]> records = new TreeMap<>(UUID_ORDER);
+        RecordEncoder encoder = new RecordEncoder();
+        for (PlayerData data : players) {
+            byte[] record = encoder.encode(data, now);
+            if (record != null) {
+                records.put(data.getPlayerId(), record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Writes a snapshot of the given records plus those of players who quit
+     * or have not rejoined since the previous run, then renames it over the
+     * current file.
+     *
+     * @param records The records of the loaded players, sorted by UUID
+     * @return The number of players written
+     * @throws IOException if the file could not be written
+     */
+    int write(Map<UUID, byte[]> records) throws IOException {
+        synchronized (writeLock) {
+            long now = System.currentTimeMillis();
+            Map<UUID, byte[]> all = new TreeMap<>(UUID_ORDER);
+            carryOver(all, now);
+            all.putAll(records);
+
+            long size = HEADER_BYTES + (long) all.size() * INDEX_ENTRY_BYTES;
+            for (byte[] record : all.values()) {
+                size += record.length;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Runtime state too large: " + size + " bytes");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(now).putInt(all.size());
+            int offset = HEADER_BYTES + all.size() * INDEX_ENTRY_BYTES;
+            for (Map.Entry<UUID, byte[]> entry : all.entrySet()) {
+                buffer.putLong(entry.getKey().getMostSignificantBits())
+                        .putLong(entry.getKey().getLeastSignificantBits())
+                        .putInt(offset)
+                        .putInt(entry.getValue().length);
+                offset += entry.getValue().length;
+            }
+            for (byte[] record : all.values()) {
+                buffer.put(record);
+            }
+            buffer.flip();
+
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return all.size();
+        }
+    }
+
+    /**
+     * Copies the records of players who quit and those from the previous run
+     * that were not restored, unless they are too old.
+     */
+    private synchronized void carryOver(Map<UUID, byte[]> out, long now) {
+        departed.values().removeIf(record -> now - ByteBuffer.wrap(record).getLong(0) > maxAgeMillis);
+        if (previous != null) {
+            carryOverPrevious(out, now);
+        }
+        out.putAll(departed);
+    }
+
+    private void carryOverPrevious(Map<UUID, byte[]> out, long now) {
+        for (int entry = restored.nextClearBit(0); entry < previousCount; entry = restored.nextClearBit(entry + 1)) {
+            int index = HEADER_BYTES + entry * INDEX_ENTRY_BYTES;
+            int offset = previous.getInt(index + 16);
+            int length = previous.getInt(index + 20);
+            if (offset < 0 || length < 10 || offset > previous.capacity() - length
+                    || now - previous.getLong(offset) > maxAgeMillis) {
+                continue;
+            }
+            byte[] record = new byte[length];
+            previous.get(offset, record);
+            out.put(new UUID(previous.getLong(index), previous.getLong(index + 8)), record);
+        }
+    }
+
+    /**
+     * Finds the index entry of a player by binary search.
+     */
+    private int find(UUID playerId) {
+        long most = playerId.getMostSignificantBits();
+        long least = playerId.getLeastSignificantBits();
+        int low = 0;
+        int high = previousCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int index = HEADER_BYTES + middle * INDEX_ENTRY_BYTES;
+            int compare = Long.compare(previous.getLong(index), most);
+            if (compare == 0) {
+                compare = Long.compare(previous.getLong(index + 8), least);
+            }
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Encodes the record of one player, reusing its buffer between players.
+     */
+    private static final class RecordEncoder implements PlayerData.RuntimeStateConsumer {
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+        private int channels;
+
+        byte[] encode(PlayerData data, long now) {
+            buffer.clear();
+            buffer.putLong(now).putShort((short) 0);
+            channels = 0;
+            data.forEachRuntimeState(now, this);
+            if (channels == 0) {
+                return null;
+            }
+            buffer.putShort(8, (short) channels);
+
+            byte[] record = new byte[buffer.position()];
+            buffer.get(0, record);
+            return record;
+        }
+
+        @Override
+        public void accept(String channelId, long cooldownEnd, int missed, long notified) {
+            byte[] id = channelId.getBytes(StandardCharsets.UTF_8);
+            if (id.length > 0xFFFF || channels == 0xFFFF) {
+                return;
+            }
+            if (buffer.remaining() < id.length + 22) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + id.length + 22));
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            buffer.putShort((short) id.length).put(id).putLong(cooldownEnd).putInt(missed).putLong(notified);
+            channels++;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package ca.xef5000.talkGroups.database;
+
+import ca.xef5000.talkGroups.concurrent.AsyncExecutor;
+import ca.xef5000.talkGroups.manager.PlayerDataManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Saves player data and closes the database within a fixed time budget when
+ * the plugin is disabled. Writes that the snapshot does not cover, such as
+ * the inbox operations (the last batch, membership changes, page removals
+ * and prunes), are drained first; any still queued when the budget runs out
+ * are dropped and logged. A dropped membership change is stored again when
+ * the player next quits, and a dropped page removal leaves the page, which
+ * was not shown yet, in the inbox.
+ *
+ * <p>The cached mute state is the source of truth, so instead of waiting for
+ * every queued mute write the coordinator stops accepting new operations,
+ * lets queued ones fall through, and stores a snapshot of all cached players
+ * in one batched transaction. The database file is then synced to disk
+ * before the connection closes. If the transaction outlasts the time budget,
+ * it is left to finish and closes the connection itself.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ShutdownCoordinator {
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 100L;
+
+    private final Logger logger;
+    private final DatabaseManager database;
+    private final PlayerDataManager playerDataManager;
+    private final AsyncExecutor executor;
+    private final CompletableFuture<?> finalWrites;
+
+    /**
+     * Creates a new ShutdownCoordinator instance.
+     *
+     * @param logger The plugin logger
+     * @param database The database manager
+     * @param playerDataManager The player data manager holding the cached state
+     * @param executor The executor running database work
+     * @param finalWrites Completes once the writes to finish before the save are done
+     */
+    public ShutdownCoordinator(Logger logger, DatabaseManager database, PlayerDataManager playerDataManager,
+                               AsyncExecutor executor, CompletableFuture<?> finalWrites) {
+        this.logger = logger;
+        this.database = database;
+        this.playerDataManager = playerDataManager;
+        this.executor = executor;
+        this.finalWrites = finalWrites;
+    }
+
+    /**
+     * Saves all cached player data and closes the database. Must be called on
+     * the main thread, which it blocks for at most the given time.
+     *
+     * @param timeoutMillis The time budget for the whole shutdown
+     * @return true if all player data was stored
+     */
+    public boolean shutdown(long timeoutMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        // Queued operations are skipped once the database stops accepting, so let these run first
+        try {
+            finalWrites.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warning("Inbox operations still queued after " + elapsedMillis(start) + "ms are dropped; "
+                    + "inbox memberships are stored again when players next quit");
+        } catch (ExecutionException e) {
+            logger.log(Level.WARNING, "Final writes failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        database.stopAccepting();
+        Map<UUID, Set<String>> snapshot = playerDataManager.snapshotMutedChannels();
+        int mutes = snapshot.values().stream().mapToInt(Set::size).sum();
+        logger.info("Saving " + snapshot.size() + " player(s) with " + mutes + " muted channel(s)...");
+
+        // Queued writes are skipped, so this only waits for the ones already running
+        if (!database.awaitIdle(deadline)) {
+            logger.warning("Database operations still running after " + elapsedMillis(start)
+                    + "ms, saving anyway");
+        }
+
+        CompletableFuture<Void> write = snapshot.isEmpty() ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(() -> {
+                    try {
+                        database.writeSnapshot(snapshot);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor);
+        boolean saved = await(write, deadline);
+        if (!write.isDone()) {
+            // Closing now would cut the transaction off, so the write closes the database itself
+            logger.warning("Shutdown save still running after " + timeoutMillis + "ms, the database is closed "
+                    + "once it finishes; " + mutes + " muted channel(s) of " + snapshot.size()
+                    + " player(s) are lost if the server exits first");
+            write.whenComplete((result, error) -> {
+                if (error == null) {
+                    logger.info("Saved player data in " + elapsedMillis(start) + "ms");
+                } else {
+                    logger.log(Level.SEVERE, "Failed to save player data, lost " + mutes + " muted channel(s)",
+                            error.getCause());
+                }
+                close(error == null);
+            });
+            executor.shutdown(0L);
+            return false;
+        }
+
+        if (saved) {
+            logger.info("Saved player data in " + elapsedMillis(start) + "ms ("
+                    + database.getSkippedOperations() + " queued operation(s) skipped)");
+        } else {
+            logger.severe("Shutdown save failed, lost " + mutes + " muted channel(s) of "
+                    + snapshot.size() + " player(s)");
+        }
+
+        // Nothing new can be submitted, so anything left is a skipped write or a stuck operation
+        if (!executor.shutdown(remainingMillis(deadline))) {
+            logger.warning("Background tasks still running after " + elapsedMillis(start) + "ms");
+        }
+        close(saved);
+        return saved;
+    }
+
+    /**
+     * Waits for the snapshot write until the deadline.
+     *
+     * @return true if the write completed successfully
+     */
+    private boolean await(CompletableFuture<Void> write, long deadline) {
+        try {
+            write.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Failed to save player data", e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Syncs the database file if the save succeeded and closes the
+     * connection, unless an operation still holds it.
+     */
+    private void close(boolean saved) {
+        if (saved && database.isConnected()) {
+            try {
+                database.sync();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to sync the database to disk", e);
+            }
+        }
+        if (!database.close(CLOSE_TIMEOUT_MILLIS)) {
+            logger.warning("Database still in use, leaving the connection open");
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
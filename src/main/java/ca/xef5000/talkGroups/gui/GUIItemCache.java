@@ -0,0 +1,192 @@
+package ca.xef5000.talkGroups.gui;
+
+import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.config.TalkGroupDiff;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the prebuilt GUI items of every TalkGroup, in both their muted and
+ * unmuted variants, so opening a page or toggling a channel only clones
+ * ready-made stacks instead of rebuilding their meta and lore. Entries are
+ * keyed by TalkGroup instance and dropped when a reload changes or removes
+ * the channel. Only used from the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class GUIItemCache {
+
+    private final ConfigManager configManager;
+    private final Map<TalkGroup, ItemStack[]> talkGroupItems;
+    private ItemStack closeItem;
+
+    /**
+     * Creates a new GUIItemCache instance.
+     *
+     * @param configManager The config manager, for message lookups
+     */
+    public GUIItemCache(ConfigManager configManager) {
+        this.configManager = configManager;
+        this.talkGroupItems = new HashMap<>();
+    }
+
+    /**
+     * Gets a copy of the item of a TalkGroup.
+     *
+     * @param group The TalkGroup
+     * @param isMuted Whether the channel is muted
+     * @return A new ItemStack the caller may modify
+     */
+    public ItemStack getTalkGroupItem(TalkGroup group, boolean isMuted) {
+        // Stale instances from before a reload would never be evicted
+        if (configManager.getTalkGroup(group.getId()) != group) {
+            return createTalkGroupItem(group, isMuted);
+        }
+
+        ItemStack[] variants = talkGroupItems.computeIfAbsent(group, g -> new ItemStack[]{
+                createTalkGroupItem(g, false),
+                createTalkGroupItem(g, true)
+        });
+        return variants[isMuted ? 1 : 0].clone();
+    }
+
+    /**
+     * Gets a copy of the close button.
+     *
+     * @return A new ItemStack the caller may modify
+     */
+    public ItemStack getCloseItem() {
+        if (closeItem == null) {
+            closeItem = createNavigationItem(Material.BARRIER,
+                    configManager.getMessage("gui.close"), Collections.emptyList());
+        }
+        return closeItem.clone();
+    }
+
+    /**
+     * Creates a page navigation button. Page buttons carry page numbers and are
+     * therefore not cached.
+     *
+     * @param messageKey The message key of the button name
+     * @param page The page the button leads to, starting at 1
+     * @param totalPages The number of pages
+     * @return A new ItemStack
+     */
+    public ItemStack createPageItem(String messageKey, int page, int totalPages) {
+        return createNavigationItem(Material.ARROW, configManager.getMessage(messageKey),
+                Collections.singletonList(ChatColor.GRAY + "Page " + page + "/" + totalPages));
+    }
+
+    /**
+     * Drops the items of TalkGroups changed or removed by a reload. Navigation
+     * items are always rebuilt since messages.yml may have changed.
+     *
+     * @param diff The changes applied by the reload
+     */
+    public void onReload(TalkGroupDiff diff) {
+        closeItem = null;
+
+        for (TalkGroup group : diff.getRemoved()) {
+            talkGroupItems.remove(group);
+        }
+        for (TalkGroup group : diff.getChanged().keySet()) {
+            talkGroupItems.remove(group);
+        }
+    }
+
+    /**
+     * Drops every cached item.
+     */
+    public void clear() {
+        talkGroupItems.clear();
+        closeItem = null;
+    }
+
+    /**
+     * Creates an ItemStack for a TalkGroup.
+     *
+     * @param group The TalkGroup
+     * @param isMuted Whether the channel is muted
+     * @return The ItemStack
+     */
+    private ItemStack createTalkGroupItem(TalkGroup group, boolean isMuted) {
+        Material material = isMuted ? Material.RED_WOOL : Material.LIME_WOOL;
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            meta.setDisplayName(group.getFormattedName());
+
+            List<String> lore = new ArrayList<>();
+            lore.add("");
+            lore.add(ChatColor.GRAY + "Alias: " + ChatColor.WHITE + "/" + group.getAlias());
+
+            if (group.getCooldown() > 0) {
+                lore.add(ChatColor.GRAY + "Cooldown: " + ChatColor.WHITE + group.getCooldown() + "s");
+            }
+
+            if (group.getRadius() > 0) {
+                lore.add(ChatColor.GRAY + "Range: " + ChatColor.WHITE + group.getRadius() + " blocks");
+            }
+            
+            if (!group.getWorlds().isEmpty()) {
+                lore.add(ChatColor.GRAY + "Worlds: " + ChatColor.WHITE + String.join(", ", group.getWorlds()));
+            }
+
+            if (group.isSilencable()) {
+                String status = isMuted ?
+                        ChatColor.RED + "Muted" :
+                        ChatColor.GREEN + "Unmuted";
+                lore.add(ChatColor.GRAY + "Status: " + status);
+
+                if (isMuted && group.isNotify()) {
+                    lore.add(ChatColor.GRAY + "Notifications: " + ChatColor.YELLOW + "Enabled");
+                    lore.add(ChatColor.GRAY + "Notify Delay: " + ChatColor.WHITE + group.getNotifyDelay() + "s");
+                }
+
+                lore.add("");
+                lore.add(ChatColor.YELLOW + "Click to " + (isMuted ? "unmute" : "mute"));
+            } else {
+                lore.add(ChatColor.GRAY + "Status: " + ChatColor.GOLD + "Cannot be muted");
+            }
+
+            meta.setLore(lore);
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+
+    /**
+     * Creates a navigation item.
+     *
+     * @param material The material
+     * @param name The display name
+     * @param lore The lore
+     * @return The ItemStack
+     */
+    private ItemStack createNavigationItem(Material material, String name, List<String> lore) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', name));
+            if (!lore.isEmpty()) {
+                meta.setLore(lore);
+            }
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+}
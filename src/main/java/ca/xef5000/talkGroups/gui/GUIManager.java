@@ -1,6 +1,7 @@
 package ca.xef5000.talkGroups.gui;
 
 import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.config.TalkGroupDiff;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -8,6 +9,7 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -22,6 +24,8 @@ public class GUIManager implements Listener {
     
     private final TalkGroups plugin;
     private final Map<UUID, TalkGroupGUI> activeGUIs;
+    private final Map<UUID, TalkGroupGUI> pooledGUIs;
+    private final GUIItemCache itemCache;
     
     /**
      * Creates a new GUIManager instance.
@@ -31,6 +35,16 @@ public class GUIManager implements Listener {
     public GUIManager(TalkGroups plugin) {
         this.plugin = plugin;
         this.activeGUIs = new HashMap<>();
+        this.itemCache = new GUIItemCache(plugin.getConfigManager());
+        
+        // One reusable GUI per player, least recently opened evicted first
+        int poolSize = plugin.getConfigManager().getConfig().getInt("settings.gui.pool-size", 100);
+        this.pooledGUIs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, TalkGroupGUI> eldest) {
+                return size() > poolSize;
+            }
+        };
     }
     
     /**
@@ -39,9 +53,27 @@ public class GUIManager implements Listener {
      * @param player The player to show the GUI to
      */
     public void openTalkGroupGUI(Player player) {
-        TalkGroupGUI gui = new TalkGroupGUI(plugin, player);
+        TalkGroupGUI gui = pooledGUIs.get(player.getUniqueId());
+        if (gui == null || gui.getPlayer() != player) {
+            gui = new TalkGroupGUI(plugin, player);
+            pooledGUIs.put(player.getUniqueId(), gui);
+        }
+        
         activeGUIs.put(player.getUniqueId(), gui);
-        gui.open();
+        gui.show();
+    }
+    
+    /**
+     * Forgets the pooled GUI of a player, for example when they leave.
+     * 
+     * @param player The player
+     */
+    public void discard(Player player) {
+        activeGUIs.remove(player.getUniqueId());
+        TalkGroupGUI gui = pooledGUIs.remove(player.getUniqueId());
+        if (gui != null) {
+            gui.cancelPendingToggles();
+        }
     }
     
     /**
@@ -73,6 +105,27 @@ public class GUIManager implements Listener {
         activeGUIs.remove(player.getUniqueId());
     }
     
+    /**
+     * Gets the cache of prebuilt GUI items.
+     * 
+     * @return The GUIItemCache
+     */
+    public GUIItemCache getItemCache() {
+        return itemCache;
+    }
+    
+    /**
+     * Invalidates cached items affected by a configuration reload.
+     * 
+     * @param diff The changes applied by the reload
+     */
+    public void onReload(TalkGroupDiff diff) {
+        itemCache.onReload(diff);
+        
+        // Pooled inventories carry the old title; open ones stay until closed
+        pooledGUIs.values().removeIf(gui -> !activeGUIs.containsValue(gui));
+    }
+    
     /**
      * Handles inventory click events.
      * 
@@ -116,10 +169,11 @@ public class GUIManager implements Listener {
      * Closes all active GUIs.
      */
     public void closeAll() {
-        for (TalkGroupGUI gui : activeGUIs.values()) {
+        for (TalkGroupGUI gui : activeGUIs.values().toArray(new TalkGroupGUI[0])) {
             gui.close();
         }
         activeGUIs.clear();
+        pooledGUIs.clear();
     }
 }
 
@@ -2,20 +2,24 @@ package ca.xef5000.talkGroups.gui;
 
 import ca.xef5000.talkGroups.TalkGroups;
 import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.config.TalkGroupRegistry;
 import ca.xef5000.talkGroups.manager.PlayerDataManager;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
 import ca.xef5000.talkGroups.model.PlayerData;
+import ca.xef5000.talkGroups.model.PlayerPermissions;
 import ca.xef5000.talkGroups.model.TalkGroup;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * GUI for managing TalkGroup mute preferences.
@@ -32,6 +36,12 @@ public class TalkGroupGUI implements InventoryHolder {
     private final Map<Integer, String> slotToChannelId;
     private int currentPage;
     private final List<TalkGroup> accessibleGroups;
+    private TalkGroupRegistry registry;
+    private PlayerPermissions permissions;
+    private final Map<String, Boolean> pendingToggles;
+    private final Map<String, CompletableFuture<Void>> writes;
+    private final long debounceTicks;
+    private BukkitTask flushTask;
     
     private static final int ITEMS_PER_PAGE = 45; // 5 rows of 9
     private static final int PREVIOUS_PAGE_SLOT = 48;
@@ -39,7 +49,8 @@ public class TalkGroupGUI implements InventoryHolder {
     private static final int CLOSE_SLOT = 49;
     
     /**
-     * Creates a new TalkGroupGUI instance.
+     * Creates a new TalkGroupGUI instance. The inventory is created once and
+     * reused every time the GUI is shown again.
      * 
      * @param plugin The plugin instance
      * @param player The player viewing the GUI
@@ -50,37 +61,64 @@ public class TalkGroupGUI implements InventoryHolder {
         this.slotToChannelId = new HashMap<>();
         this.currentPage = 0;
         this.accessibleGroups = new ArrayList<>();
-        
-        // Get all TalkGroups the player has access to
-        ConfigManager configManager = plugin.getConfigManager();
-        for (TalkGroup group : configManager.getAllTalkGroups().values()) {
-            if (player.hasPermission(group.getPermission())) {
-                accessibleGroups.add(group);
-            }
-        }
-        
-        // Sort by name for consistent display
-        accessibleGroups.sort(Comparator.comparing(TalkGroup::getName));
+        this.pendingToggles = new LinkedHashMap<>();
+        this.writes = new HashMap<>();
+        this.debounceTicks = Math.max(1L,
+                plugin.getConfigManager().getConfig().getLong("settings.gui.toggle-debounce-ms", 400L) / 50L);
         
         // Create inventory
         String title = ChatColor.translateAlternateColorCodes('&', 
-                configManager.getMessage("gui.title"));
+                plugin.getConfigManager().getMessage("gui.title"));
         this.inventory = Bukkit.createInventory(this, 54, title);
-        
-        // Populate inventory
+    }
+    
+    /**
+     * Shows the first page to the player, refreshing the channel list only if
+     * the registry or the player's permissions changed since the last time.
+     */
+    public void show() {
+        refreshAccessibleGroups();
+        currentPage = 0;
         populateInventory();
+        open();
+    }
+    
+    /**
+     * Rebuilds the list of accessible TalkGroups from the registry's name
+     * order and the player's cached access bits, if either changed.
+     */
+    private void refreshAccessibleGroups() {
+        TalkGroupRegistry current = plugin.getConfigManager().getRegistry();
+        PlayerPermissions currentPermissions = plugin.getPermissionCache().get(player, current);
+        
+        if (current == registry && currentPermissions == permissions) {
+            return;
+        }
+        
+        registry = current;
+        permissions = currentPermissions;
+        accessibleGroups.clear();
+        
+        // Already sorted by name, no copy or sort needed
+        for (int position = 0; position < current.size(); position++) {
+            int index = current.indexByName(position);
+            if (currentPermissions.canAccess(index)) {
+                accessibleGroups.add(current.get(index));
+            }
+        }
     }
     
     /**
      * Populates the inventory with items.
      */
     private void populateInventory() {
-        inventory.clear();
+        long start = System.nanoTime();
         slotToChannelId.clear();
         
         PlayerDataManager dataManager = plugin.getPlayerDataManager();
         PlayerData playerData = dataManager.getPlayerData(player);
-        ConfigManager configManager = plugin.getConfigManager();
+        GUIItemCache itemCache = plugin.getGUIManager().getItemCache();
+        ItemStack[] contents = new ItemStack[inventory.getSize()];
         
         // Calculate pagination
         int startIndex = currentPage * ITEMS_PER_PAGE;
@@ -92,8 +130,7 @@ public class TalkGroupGUI implements InventoryHolder {
             TalkGroup group = accessibleGroups.get(i);
             boolean isMuted = playerData.isChannelMuted(group.getId());
             
-            ItemStack item = createTalkGroupItem(group, isMuted);
-            inventory.setItem(slot, item);
+            contents[slot] = itemCache.getTalkGroupItem(group, isMuted);
             slotToChannelId.put(slot, group.getId());
             slot++;
         }
@@ -102,98 +139,35 @@ public class TalkGroupGUI implements InventoryHolder {
         int totalPages = (int) Math.ceil((double) accessibleGroups.size() / ITEMS_PER_PAGE);
         
         if (currentPage > 0) {
-            inventory.setItem(PREVIOUS_PAGE_SLOT, createNavigationItem(
-                    Material.ARROW,
-                    configManager.getMessage("gui.previous-page"),
-                    Collections.singletonList(ChatColor.GRAY + "Page " + currentPage + "/" + totalPages)
-            ));
+            contents[PREVIOUS_PAGE_SLOT] = itemCache.createPageItem("gui.previous-page", currentPage, totalPages);
         }
         
         if (currentPage < totalPages - 1) {
-            inventory.setItem(NEXT_PAGE_SLOT, createNavigationItem(
-                    Material.ARROW,
-                    configManager.getMessage("gui.next-page"),
-                    Collections.singletonList(ChatColor.GRAY + "Page " + (currentPage + 2) + "/" + totalPages)
-            ));
+            contents[NEXT_PAGE_SLOT] = itemCache.createPageItem("gui.next-page", currentPage + 2, totalPages);
         }
         
-        inventory.setItem(CLOSE_SLOT, createNavigationItem(
-                Material.BARRIER,
-                configManager.getMessage("gui.close"),
-                Collections.emptyList()
-        ));
-    }
-    
-    /**
-     * Creates an ItemStack for a TalkGroup.
-     * 
-     * @param group The TalkGroup
-     * @param isMuted Whether the channel is muted
-     * @return The ItemStack
-     */
-    private ItemStack createTalkGroupItem(TalkGroup group, boolean isMuted) {
-        ConfigManager configManager = plugin.getConfigManager();
-        
-        Material material = isMuted ? Material.RED_WOOL : Material.LIME_WOOL;
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
+        contents[CLOSE_SLOT] = itemCache.getCloseItem();
         
-        if (meta != null) {
-            meta.setDisplayName(group.getFormattedName());
-            
-            List<String> lore = new ArrayList<>();
-            lore.add("");
-            lore.add(ChatColor.GRAY + "Alias: " + ChatColor.WHITE + "/" + group.getAlias());
-            
-            if (group.getCooldown() > 0) {
-                lore.add(ChatColor.GRAY + "Cooldown: " + ChatColor.WHITE + group.getCooldown() + "s");
-            }
-            
-            if (group.isSilencable()) {
-                String status = isMuted ? 
-                        ChatColor.RED + "Muted" : 
-                        ChatColor.GREEN + "Unmuted";
-                lore.add(ChatColor.GRAY + "Status: " + status);
-                
-                if (isMuted && group.isNotify()) {
-                    lore.add(ChatColor.GRAY + "Notifications: " + ChatColor.YELLOW + "Enabled");
-                    lore.add(ChatColor.GRAY + "Notify Delay: " + ChatColor.WHITE + group.getNotifyDelay() + "s");
-                }
-                
-                lore.add("");
-                lore.add(ChatColor.YELLOW + "Click to " + (isMuted ? "unmute" : "mute"));
-            } else {
-                lore.add(ChatColor.GRAY + "Status: " + ChatColor.GOLD + "Cannot be muted");
-            }
-            
-            meta.setLore(lore);
-            item.setItemMeta(meta);
-        }
+        // Replace the whole page in one call
+        inventory.setContents(contents);
         
-        return item;
+        plugin.getMetrics().timer(MetricsRegistry.GUI_RENDER).recordSince(start);
     }
     
     /**
-     * Creates a navigation item.
+     * Refreshes the item of a single TalkGroup if it is shown on the current page.
      * 
-     * @param material The material
-     * @param name The display name
-     * @param lore The lore
-     * @return The ItemStack
+     * @param group The TalkGroup whose mute state changed
+     * @param isMuted Whether the channel is now muted
      */
-    private ItemStack createNavigationItem(Material material, String name, List<String> lore) {
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-        
-        if (meta != null) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', name));
-            if (!lore.isEmpty()) {
-                meta.setLore(lore);
+    private void updateTalkGroupSlot(TalkGroup group, boolean isMuted) {
+        for (Map.Entry<Integer, String> entry : slotToChannelId.entrySet()) {
+            if (entry.getValue().equals(group.getId())) {
+                inventory.setItem(entry.getKey(),
+                        plugin.getGUIManager().getItemCache().getTalkGroupItem(group, isMuted));
+                return;
             }
-            item.setItemMeta(meta);
         }
-        
-        return item;
     }
     
     /**
@@ -210,19 +184,7 @@ public class TalkGroupGUI implements InventoryHolder {
             TalkGroup group = plugin.getConfigManager().getTalkGroup(channelId);
             
             if (group != null && group.isSilencable()) {
-                PlayerDataManager dataManager = plugin.getPlayerDataManager();
-                ConfigManager configManager = plugin.getConfigManager();
-                
-                dataManager.toggleMute(player, channelId).thenAccept(nowMuted -> {
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        String message = nowMuted ?
-                                configManager.getMessage("channel.muted", "channel", group.getFormattedName()) :
-                                configManager.getMessage("channel.unmuted", "channel", group.getFormattedName());
-                        
-                        player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
-                        populateInventory();
-                    });
-                });
+                toggle(group);
             }
         }
         // Handle navigation
@@ -242,6 +204,148 @@ public class TalkGroupGUI implements InventoryHolder {
         }
     }
     
+    /**
+     * Flips the mute state of a channel immediately and schedules it to be
+     * persisted. Clicks within the debounce window are collapsed, so only
+     * the state the player settles on is written.
+     * 
+     * @param group The TalkGroup to toggle
+     */
+    private void toggle(TalkGroup group) {
+        PlayerData playerData = plugin.getPlayerDataManager().getPlayerData(player);
+        
+        // Remember the stored state from before the first click of this window
+        pendingToggles.putIfAbsent(group.getId(), playerData.isChannelMuted(group.getId()));
+        boolean nowMuted = playerData.toggleMute(group.getId());
+        updateTalkGroupSlot(group, nowMuted);
+        
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        flushTask = Bukkit.getScheduler().runTaskLater(plugin, this::flushToggles, debounceTicks);
+    }
+    
+    /**
+     * Persists the channels whose state changed during the debounce window and
+     * reports them in one message per direction once every write has finished.
+     */
+    private void flushToggles() {
+        flushTask = null;
+        
+        PlayerDataManager dataManager = plugin.getPlayerDataManager();
+        PlayerData playerData = dataManager.getPlayerData(player);
+        ConfigManager configManager = plugin.getConfigManager();
+        
+        Map<TalkGroup, Boolean> targets = new LinkedHashMap<>();
+        Set<TalkGroup> failed = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> batch = new ArrayList<>();
+        
+        for (Map.Entry<String, Boolean> entry : pendingToggles.entrySet()) {
+            String channelId = entry.getKey();
+            boolean muted = playerData.isChannelMuted(channelId);
+            TalkGroup group = configManager.getTalkGroup(channelId);
+            
+            // Clicked an even number of times, nothing to store
+            if (group == null || muted == entry.getValue()) {
+                continue;
+            }
+            
+            // Chain behind the previous write of this channel so writes never reorder
+            CompletableFuture<Void> write = writes.getOrDefault(channelId, CompletableFuture.completedFuture(null))
+                    .handle((v, error) -> null)
+                    .thenCompose(v -> dataManager.persistMute(player.getUniqueId(), channelId, muted));
+            writes.put(channelId, write);
+            
+            targets.put(group, muted);
+            batch.add(write.exceptionally(error -> {
+                failed.add(group);
+                return null;
+            }));
+        }
+        pendingToggles.clear();
+        
+        if (targets.isEmpty()) {
+            return;
+        }
+        
+        CompletableFuture.allOf(batch.toArray(new CompletableFuture[0])).thenRun(() -> {
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> reportToggles(targets, failed));
+            }
+        });
+    }
+    
+    /**
+     * Confirms persisted toggles and rolls back the ones that failed to save.
+     * Nothing is reported if the player left while the writes were running,
+     * since their data was already saved and unloaded on quit.
+     * 
+     * @param targets The TalkGroups that were written and their new mute state
+     * @param failed The TalkGroups whose write failed
+     */
+    private void reportToggles(Map<TalkGroup, Boolean> targets, Set<TalkGroup> failed) {
+        if (!player.isOnline()) {
+            return;
+        }
+        // Never recreate the data of a player who quit and was unloaded
+        PlayerData playerData = plugin.getPlayerDataManager().getCachedPlayerData(player.getUniqueId());
+        if (playerData == null) {
+            return;
+        }
+        
+        ConfigManager configManager = plugin.getConfigManager();
+        List<String> muted = new ArrayList<>();
+        List<String> unmuted = new ArrayList<>();
+        
+        for (Map.Entry<TalkGroup, Boolean> entry : targets.entrySet()) {
+            TalkGroup group = entry.getKey();
+            boolean target = entry.getValue();
+            
+            if (!failed.contains(group)) {
+                (target ? muted : unmuted).add(group.getFormattedName());
+                continue;
+            }
+            
+            // Revert unless the player already clicked the channel again
+            if (!pendingToggles.containsKey(group.getId()) && playerData.isChannelMuted(group.getId()) == target) {
+                playerData.toggleMute(group.getId());
+                updateTalkGroupSlot(group, !target);
+            }
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("gui.toggle-failed", "channel", group.getFormattedName())));
+        }
+        
+        if (!muted.isEmpty()) {
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("channel.muted", "channel", String.join("&7, ", muted))));
+        }
+        if (!unmuted.isEmpty()) {
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                    configManager.getMessage("channel.unmuted", "channel", String.join("&7, ", unmuted))));
+        }
+    }
+    
+    /**
+     * Drops toggles that were not flushed yet. Used when the player leaves,
+     * since saving their data on quit already stores the toggled state.
+     */
+    public void cancelPendingToggles() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        pendingToggles.clear();
+    }
+    
+    /**
+     * Gets the player viewing this GUI.
+     * 
+     * @return The player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+    
     /**
      * Opens the inventory for the player.
      */
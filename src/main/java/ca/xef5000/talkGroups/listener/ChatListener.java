@@ -0,0 +1,68 @@
+package ca.xef5000.talkGroups.listener;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.chat.ChatRouter;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Sends focused and quick-prefixed chat to TalkGroups. The message is
+ * routed and taken out of public chat on the async chat thread; delivery
+ * then runs on the main thread through the same path as the alias
+ * commands, since cooldowns and mute bookkeeping are main-thread only.
+ * Only registered when running on Paper.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ChatListener implements Listener {
+
+    private final TalkGroups plugin;
+    private final ChatRouter router;
+
+    /**
+     * Creates a new ChatListener instance.
+     *
+     * @param plugin The plugin instance
+     * @param router The router deciding where chat goes
+     */
+    public ChatListener(TalkGroups plugin, ChatRouter router) {
+        this.plugin = plugin;
+        this.router = router;
+    }
+
+    /**
+     * Handles async chat events.
+     *
+     * @param event The AsyncChatEvent
+     */
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onAsyncChat(AsyncChatEvent event) {
+        Player player = event.getPlayer();
+        String text = PlainTextComponentSerializer.plainText().serialize(event.message());
+
+        ChatRouter.Route route = router.route(plugin.getConfigManager().getRegistry(), player.getUniqueId(), text,
+                group -> plugin.getPermissionCache().canAccess(player, group));
+        if (route == null || !plugin.isEnabled()) {
+            return;
+        }
+
+        event.setCancelled(true);
+        String groupId = route.group().getId();
+        String message = route.message();
+
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            // The TalkGroup may have been reloaded or the player may have left in the meantime
+            TalkGroup group = plugin.getConfigManager().getTalkGroup(groupId);
+            if (group != null && player.isOnline()) {
+                plugin.getChannelSender().send(player, group, message);
+            }
+        });
+    }
+}
@@ -1,9 +1,12 @@
 package ca.xef5000.talkGroups.listener;
 
 import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.manager.EphemeralChannel;
 import ca.xef5000.talkGroups.manager.PlayerDataManager;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
@@ -35,6 +38,9 @@ public class PlayerListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         PlayerDataManager dataManager = plugin.getPlayerDataManager();
         dataManager.loadPlayerData(event.getPlayer());
+        plugin.getPermissionCache().refresh(event.getPlayer());
+        plugin.getMentionIndex().add(event.getPlayer());
+        plugin.getInboxManager().showPage(event.getPlayer(), true);
     }
     
     /**
@@ -44,8 +50,43 @@ public class PlayerListener implements Listener {
      */
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        // Uses the cached mutes and permissions, so before they are dropped
+        plugin.getInboxManager().onQuit(event.getPlayer());
+        
         PlayerDataManager dataManager = plugin.getPlayerDataManager();
         dataManager.unloadPlayerData(event.getPlayer());
+        plugin.getPermissionCache().invalidate(event.getPlayer().getUniqueId());
+        plugin.getGUIManager().discard(event.getPlayer());
+        plugin.getChatRouter().unfocus(event.getPlayer().getUniqueId());
+        plugin.getMentionIndex().remove(event.getPlayer());
+        plugin.getChannelSender().getFloodGuard().remove(event.getPlayer().getUniqueId());
+        
+        // Leave parties and other ephemeral channels
+        for (EphemeralChannel channel : plugin.getEphemeralChannels().removePlayer(event.getPlayer().getUniqueId())) {
+            plugin.getMainCommand().getPartyCommand().announceLeave(channel, event.getPlayer().getName());
+        }
+    }
+    
+    /**
+     * Handles world changes, which can change per-world permissions.
+     * 
+     * @param event The PlayerChangedWorldEvent
+     */
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        plugin.getPermissionCache().invalidate(event.getPlayer().getUniqueId());
+    }
+    
+    /**
+     * Handles command tree updates. The server resends commands after
+     * permissions are recalculated (op changes, LuckPerms updates), so
+     * cached permissions are dropped here.
+     * 
+     * @param event The PlayerCommandSendEvent
+     */
+    @EventHandler
+    public void onPlayerCommandSend(PlayerCommandSendEvent event) {
+        plugin.getPermissionCache().invalidate(event.getPlayer().getUniqueId());
     }
 }
 
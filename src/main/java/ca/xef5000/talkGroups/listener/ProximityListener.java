@@ -0,0 +1,131 @@
+package ca.xef5000.talkGroups.listener;
+
+import ca.xef5000.talkGroups.chat.ProximityIndex;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+
+/**
+ * Keeps the {@link ProximityIndex} in sync with player positions. Movement
+ * within the same block, such as turning the head, is ignored before the
+ * index is touched. Players riding a vehicle (horse, boat, minecart) fire no
+ * PlayerMoveEvent, so they are moved along with the vehicle instead.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ProximityListener implements Listener {
+
+    private final ProximityIndex index;
+
+    /**
+     * Creates a new ProximityListener instance.
+     *
+     * @param index The index to update
+     */
+    public ProximityListener(ProximityIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Handles player join events.
+     *
+     * @param event The PlayerJoinEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        index.track(event.getPlayer());
+    }
+
+    /**
+     * Handles player quit events.
+     *
+     * @param event The PlayerQuitEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        index.untrack(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Handles player movement, only acting on block changes.
+     *
+     * @param event The PlayerMoveEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null || (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld())) {
+            return;
+        }
+        index.move(event.getPlayer(), to);
+    }
+
+    /**
+     * Handles vehicle movement for the players riding it, only acting on
+     * block changes.
+     *
+     * @param event The VehicleMoveEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld()) {
+            return;
+        }
+        for (Entity passenger : event.getVehicle().getPassengers()) {
+            if (passenger instanceof Player player) {
+                index.move(player, to);
+            }
+        }
+    }
+
+    /**
+     * Handles players leaving a vehicle, where they may have been indexed
+     * at an older position of the vehicle.
+     *
+     * @param event The VehicleExitEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onVehicleExit(VehicleExitEvent event) {
+        if (event.getExited() instanceof Player player) {
+            index.track(player);
+        }
+    }
+
+    /**
+     * Handles teleports, including those between worlds.
+     *
+     * @param event The PlayerTeleportEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        if (event.getTo() != null) {
+            index.move(event.getPlayer(), event.getTo());
+        }
+    }
+
+    /**
+     * Handles respawns, which move the player without a teleport event.
+     *
+     * @param event The PlayerRespawnEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        index.move(event.getPlayer(), event.getRespawnLocation());
+    }
+}
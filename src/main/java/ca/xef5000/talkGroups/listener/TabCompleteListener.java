@@ -0,0 +1,72 @@
+package ca.xef5000.talkGroups.listener;
+
+import ca.xef5000.talkGroups.command.TalkGroupCommand;
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Answers /tg tab completion from Paper's async tab-complete event, so
+ * suggestions are computed off the main thread and the synchronous
+ * completer is never invoked. Only registered when running on Paper.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class TabCompleteListener implements Listener {
+
+    private static final String NAMESPACE = "talkgroups:";
+
+    private final TalkGroupCommand command;
+
+    /**
+     * Creates a new TabCompleteListener instance.
+     *
+     * @param command The /tg command handler providing completions
+     */
+    public TabCompleteListener(TalkGroupCommand command) {
+        this.command = command;
+    }
+
+    /**
+     * Handles async tab completion of the /tg command.
+     *
+     * @param event The AsyncTabCompleteEvent
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand()) {
+            return;
+        }
+
+        String buffer = event.getBuffer();
+        int space = buffer.indexOf(' ');
+        if (space < 0) {
+            // Still typing the command name itself
+            return;
+        }
+
+        String label = buffer.substring(buffer.startsWith("/") ? 1 : 0, space).toLowerCase(Locale.ROOT);
+        if (label.startsWith(NAMESPACE)) {
+            label = label.substring(NAMESPACE.length());
+        }
+        if (!label.equals("tg") && !label.equals("talkgroups")) {
+            return;
+        }
+
+        if (!event.getSender().hasPermission("talkgroups.use")) {
+            return;
+        }
+
+        // Keep the trailing empty argument when the buffer ends with a space
+        String[] args = buffer.substring(space + 1).split(" ", -1);
+        List<String> completions = command.complete(event.getSender(), args);
+
+        event.setCompletions(completions);
+        event.setHandled(true);
+    }
+}
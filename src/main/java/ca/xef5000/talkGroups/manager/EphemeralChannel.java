@@ -0,0 +1,167 @@
+package ca.xef5000.talkGroups.manager;
+
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A short-lived channel created at runtime, such as a party or a support
+ * ticket. Unlike configured TalkGroups it has an explicit member list and no
+ * command of its own. Members are kept in a compact array and each one
+ * remembers its slot, so joining, leaving and iterating are cheap.
+ * Instances are managed by {@link EphemeralChannelManager} and only used
+ * from the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class EphemeralChannel {
+
+    private final String id;
+    private final TalkGroup template;
+    private UUID owner;
+    private Membership[] members;
+    private int size;
+    private Set<UUID> invited;
+    private boolean active;
+
+    EphemeralChannel(String id, TalkGroup template, UUID owner) {
+        this.id = id;
+        this.template = template;
+        this.owner = owner;
+        this.members = new Membership[4];
+        this.active = true;
+    }
+
+    /**
+     * Gets the unique identifier of this channel.
+     *
+     * @return The channel ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the TalkGroup supplying the name, prefix and suffix of this
+     * channel. It is shared by all channels of the same kind.
+     *
+     * @return The template TalkGroup
+     */
+    public TalkGroup getTemplate() {
+        return template;
+    }
+
+    /**
+     * Gets the owner of this channel.
+     *
+     * @return The owner's UUID
+     */
+    public UUID getOwner() {
+        return owner;
+    }
+
+    /**
+     * Checks whether a player owns this channel.
+     *
+     * @param playerId The player's UUID
+     * @return true if the player is the owner
+     */
+    public boolean isOwner(UUID playerId) {
+        return owner.equals(playerId);
+    }
+
+    /**
+     * Gets the number of members.
+     *
+     * @return The member count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a member by position. Positions change when members leave.
+     *
+     * @param index The position, from 0 to {@link #size()} - 1
+     * @return The member
+     */
+    public Player getMember(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return members[index].player;
+    }
+
+    /**
+     * Checks whether this channel still exists.
+     *
+     * @return false once the channel was disbanded
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    void setOwner(UUID owner) {
+        this.owner = owner;
+    }
+
+    void deactivate() {
+        this.active = false;
+    }
+
+    Membership add(Player player) {
+        if (size == members.length) {
+            members = Arrays.copyOf(members, size * 2);
+        }
+        Membership membership = new Membership(this, player, size);
+        members[size++] = membership;
+        return membership;
+    }
+
+    /**
+     * Removes a membership by moving the last member into its slot.
+     */
+    void remove(Membership membership) {
+        int slot = membership.slot;
+        Membership last = members[--size];
+        members[slot] = last;
+        last.slot = slot;
+        members[size] = null;
+    }
+
+    Membership membership(int index) {
+        return members[index];
+    }
+
+    Set<UUID> invited() {
+        if (invited == null) {
+            invited = new HashSet<>();
+        }
+        return invited;
+    }
+
+    boolean hasInvites() {
+        return invited != null && !invited.isEmpty();
+    }
+
+    /**
+     * Links one player to one channel. Held by both the channel and the
+     * player's entry in the reverse index.
+     */
+    static final class Membership {
+        final EphemeralChannel channel;
+        final Player player;
+        int slot;
+
+        private Membership(EphemeralChannel channel, Player player, int slot) {
+            this.channel = channel;
+            this.player = player;
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package ca.xef5000.talkGroups.manager;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.chat.ChatBuffer;
+import ca.xef5000.talkGroups.chat.FanOut;
+import ca.xef5000.talkGroups.metrics.Histogram;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates and tracks ephemeral channels, such as parties and support tickets.
+ * Besides the channels by ID it keeps a reverse index from each player to
+ * their memberships, so a player leaving or quitting only touches the
+ * channels they are in, and disbanding a channel only touches its members.
+ * Channels of the same kind share one template TalkGroup, which keeps the
+ * compiled chat formats bounded no matter how many channels exist. Only used
+ * from the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class EphemeralChannelManager {
+
+    private final TalkGroups plugin;
+    private final Map<String, EphemeralChannel> channels;
+    private final Map<UUID, List<EphemeralChannel.Membership>> memberships;
+    private final Map<UUID, EphemeralChannel> invites;
+    private final Histogram sendTimer;
+    private final Histogram fanout;
+    private final LongAdder messages;
+    private long nextId;
+
+    /**
+     * Creates a new EphemeralChannelManager instance.
+     *
+     * @param plugin The plugin instance
+     */
+    public EphemeralChannelManager(TalkGroups plugin) {
+        this.plugin = plugin;
+        this.channels = new HashMap<>();
+        this.memberships = new HashMap<>();
+        this.invites = new HashMap<>();
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        this.sendTimer = metrics.timer(MetricsRegistry.CHAT_SEND);
+        this.fanout = metrics.histogram(MetricsRegistry.CHAT_FANOUT);
+        this.messages = metrics.counter(MetricsRegistry.EPHEMERAL_MESSAGES);
+        metrics.gauge(MetricsRegistry.EPHEMERAL_CHANNELS, channels::size);
+    }
+
+    /**
+     * Creates a channel with its owner as the first member.
+     *
+     * @param template The TalkGroup supplying name, prefix and suffix; reuse it for channels of the same kind
+     * @param owner The owner
+     * @return The new channel
+     */
+    public EphemeralChannel create(TalkGroup template, Player owner) {
+        String id = template.getId() + "-" + (++nextId);
+        EphemeralChannel channel = new EphemeralChannel(id, template, owner.getUniqueId());
+        channels.put(id, channel);
+        join(channel, owner);
+        return channel;
+    }
+
+    /**
+     * Gets a channel by ID.
+     *
+     * @param id The channel ID
+     * @return The channel, or null if it does not exist
+     */
+    public EphemeralChannel getChannel(String id) {
+        return channels.get(id);
+    }
+
+    /**
+     * Adds a player to a channel.
+     *
+     * @param channel The channel
+     * @param player The player
+     * @return true if the player joined, false if already a member or the channel is gone
+     */
+    public boolean join(EphemeralChannel channel, Player player) {
+        if (!channel.isActive() || isMember(channel, player.getUniqueId())) {
+            return false;
+        }
+        memberships.computeIfAbsent(player.getUniqueId(), id -> new ArrayList<>(2)).add(channel.add(player));
+        return true;
+    }
+
+    /**
+     * Removes a player from a channel. A channel left empty is disbanded, and
+     * ownership passes to another member when the owner leaves.
+     *
+     * @param channel The channel
+     * @param playerId The player's UUID
+     * @return true if the player was a member
+     */
+    public boolean leave(EphemeralChannel channel, UUID playerId) {
+        List<EphemeralChannel.Membership> joined = memberships.get(playerId);
+        if (joined == null) {
+            return false;
+        }
+
+        for (int i = 0; i < joined.size(); i++) {
+            EphemeralChannel.Membership membership = joined.get(i);
+            if (membership.channel == channel) {
+                removeAt(joined, i);
+                if (joined.isEmpty()) {
+                    memberships.remove(playerId);
+                }
+                detach(membership);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a player from every channel and drops their pending invite,
+     * for example when they quit.
+     *
+     * @param playerId The player's UUID
+     * @return The channels the player was removed from, some of which may now be disbanded
+     */
+    public List<EphemeralChannel> removePlayer(UUID playerId) {
+        EphemeralChannel invitedTo = invites.remove(playerId);
+        if (invitedTo != null) {
+            invitedTo.invited().remove(playerId);
+        }
+
+        List<EphemeralChannel.Membership> joined = memberships.remove(playerId);
+        if (joined == null) {
+            return Collections.emptyList();
+        }
+
+        List<EphemeralChannel> left = new ArrayList<>(joined.size());
+        for (EphemeralChannel.Membership membership : joined) {
+            detach(membership);
+            left.add(membership.channel);
+        }
+        return left;
+    }
+
+    /**
+     * Disbands a channel, removing all members and pending invites.
+     *
+     * @param channel The channel
+     */
+    public void disband(EphemeralChannel channel) {
+        if (!channel.isActive()) {
+            return;
+        }
+        channel.deactivate();
+        channels.remove(channel.getId());
+
+        for (int i = 0; i < channel.size(); i++) {
+            EphemeralChannel.Membership membership = channel.membership(i);
+            List<EphemeralChannel.Membership> joined = memberships.get(membership.player.getUniqueId());
+            if (joined != null) {
+                joined.remove(membership);
+                if (joined.isEmpty()) {
+                    memberships.remove(membership.player.getUniqueId());
+                }
+            }
+        }
+
+        if (channel.hasInvites()) {
+            for (UUID invited : channel.invited()) {
+                invites.remove(invited, channel);
+            }
+        }
+    }
+
+    /**
+     * Invites a player to a channel, replacing any earlier invite they had.
+     *
+     * @param channel The channel
+     * @param playerId The invited player's UUID
+     */
+    public void invite(EphemeralChannel channel, UUID playerId) {
+        EphemeralChannel previous = invites.put(playerId, channel);
+        if (previous != null && previous != channel) {
+            previous.invited().remove(playerId);
+        }
+        channel.invited().add(playerId);
+    }
+
+    /**
+     * Gets the channel a player has a pending invite to.
+     *
+     * @param playerId The player's UUID
+     * @return The channel, or null if the player has no invite
+     */
+    public EphemeralChannel getInvite(UUID playerId) {
+        return invites.get(playerId);
+    }
+
+    /**
+     * Accepts a player's pending invite and joins the channel.
+     *
+     * @param player The player
+     * @return The joined channel, or null if there was no invite or the channel is gone
+     */
+    public EphemeralChannel acceptInvite(Player player) {
+        EphemeralChannel channel = invites.remove(player.getUniqueId());
+        if (channel == null || !channel.isActive()) {
+            return null;
+        }
+        channel.invited().remove(player.getUniqueId());
+        join(channel, player);
+        return channel;
+    }
+
+    /**
+     * Checks whether a player is a member of a channel.
+     *
+     * @param channel The channel
+     * @param playerId The player's UUID
+     * @return true if the player is a member
+     */
+    public boolean isMember(EphemeralChannel channel, UUID playerId) {
+        List<EphemeralChannel.Membership> joined = memberships.get(playerId);
+        if (joined != null) {
+            for (int i = 0; i < joined.size(); i++) {
+                if (joined.get(i).channel == channel) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the channel of a given kind a player is in.
+     *
+     * @param playerId The player's UUID
+     * @param kind The ID of the kind's template TalkGroup
+     * @return The first matching channel, or null if the player is in none
+     */
+    public EphemeralChannel find(UUID playerId, String kind) {
+        List<EphemeralChannel.Membership> joined = memberships.get(playerId);
+        if (joined != null) {
+            for (int i = 0; i < joined.size(); i++) {
+                if (joined.get(i).channel.getTemplate().getId().equals(kind)) {
+                    return joined.get(i).channel;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sends a chat message from a member to all members, using the
+     * template's format.
+     *
+     * @param channel The channel
+     * @param sender The sender
+     * @param args The command arguments making up the message
+     * @param offset Index of the first argument that belongs to the message
+     * @return false if the message was empty
+     */
+    public boolean send(EphemeralChannel channel, CommandSender sender, String[] args, int offset) {
+        long start = System.nanoTime();
+        ChatBuffer buffer = plugin.getMessageFormatter().render(channel.getTemplate(), sender.getName(), args,
+                offset, plugin.getPermissionCache().canUseColors(sender));
+        if (buffer.isMessageEmpty()) {
+            return false;
+        }
+
+        String line = buffer.toLine();
+        broadcast(channel, line);
+        plugin.getLogger().info("[" + channel.getId() + "] " + sender.getName() + ": " + buffer.toMessage());
+
+        messages.increment();
+        fanout.record(channel.size());
+        sendTimer.recordSince(start);
+        return true;
+    }
+
+    /**
+     * Sends a line to all members as is.
+     *
+     * @param channel The channel
+     * @param line The line
+     */
+    public void broadcast(EphemeralChannel channel, String line) {
+        FanOut fanOut = plugin.getFanOut();
+        int count = channel.size();
+        Player[] recipients = fanOut.buffer(count);
+        for (int i = 0; i < count; i++) {
+            recipients[i] = channel.getMember(i);
+        }
+        fanOut.deliver(recipients, count, line);
+    }
+
+    /**
+     * Gets the number of open channels.
+     *
+     * @return The channel count
+     */
+    public int getChannelCount() {
+        return channels.size();
+    }
+
+    /**
+     * Disbands every channel.
+     */
+    public void clear() {
+        for (EphemeralChannel channel : channels.values()) {
+            channel.deactivate();
+        }
+        channels.clear();
+        memberships.clear();
+        invites.clear();
+    }
+
+    /**
+     * Removes a membership from its channel, disbanding the channel once
+     * empty and handing ownership on if the owner left.
+     */
+    private void detach(EphemeralChannel.Membership membership) {
+        EphemeralChannel channel = membership.channel;
+        channel.remove(membership);
+
+        if (channel.size() == 0) {
+            disband(channel);
+        } else if (channel.isOwner(membership.player.getUniqueId())) {
+            channel.setOwner(channel.getMember(0).getUniqueId());
+        }
+    }
+
+    /**
+     * Removes a list element by moving the last one into its place.
+     */
+    private static <T> void removeAt(List<T> list, int index) {
+        T last = list.remove(list.size() - 1);
+        if (index < list.size()) {
+            list.set(index, last);
+        }
+    }
+}
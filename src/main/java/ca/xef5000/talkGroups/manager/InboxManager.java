@@ -0,0 +1,306 @@
+package ca.xef5000.talkGroups.manager;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.config.ConfigManager;
+import ca.xef5000.talkGroups.database.DatabaseManager;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
+import ca.xef5000.talkGroups.model.InboxMessage;
+import ca.xef5000.talkGroups.model.PlayerData;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the messages of TalkGroups with an inbox for members who are
+ * offline and shows them when they join. A member is a player who could
+ * access the channel and had not muted it when they last quit. Messages
+ * are queued in memory, at most the inbox capacity per member, and stored
+ * in batches on a timer. On join the oldest page is shown and then
+ * removed, and the member reads the rest with /tg inbox. A page is only
+ * removed once it has been sent, so a member who quits before that keeps
+ * it. Stored messages are pruned by age and by the per-member capacity.
+ * Only used from the main thread.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class InboxManager {
+
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1L);
+
+    private final TalkGroups plugin;
+    private final DatabaseManager database;
+    private final Map<String, Set<UUID>> members;
+    private final Map<UUID, ArrayDeque<InboxMessage>> pending;
+    private final Set<UUID> reading;
+    private final LongAdder queued;
+    private final LongAdder dropped;
+    private final LongAdder delivered;
+    private CompletableFuture<?> chain;
+    private BukkitTask flushTask;
+    private int pendingCount;
+    private long lastPrune;
+    private int capacity;
+    private int batchSize;
+    private int pageSize;
+    private long ttlMillis;
+
+    /**
+     * Creates a new InboxManager instance.
+     *
+     * @param plugin The plugin instance
+     * @param database The database manager
+     */
+    public InboxManager(TalkGroups plugin, DatabaseManager database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.members = new HashMap<>();
+        this.pending = new HashMap<>();
+        this.reading = new HashSet<>();
+        this.queued = plugin.getMetrics().counter(MetricsRegistry.INBOX_QUEUED);
+        this.dropped = plugin.getMetrics().counter(MetricsRegistry.INBOX_DROPPED);
+        this.delivered = plugin.getMetrics().counter(MetricsRegistry.INBOX_DELIVERED);
+        this.chain = CompletableFuture.completedFuture(null);
+        reload();
+    }
+
+    /**
+     * Reads the inbox settings from config.yml.
+     */
+    public void reload() {
+        ConfigManager configManager = plugin.getConfigManager();
+        this.capacity = Math.max(1, configManager.getConfig().getInt("settings.inbox.capacity", 50));
+        this.batchSize = Math.max(1, configManager.getConfig().getInt("settings.inbox.batch-size", 100));
+        this.pageSize = Math.max(1, configManager.getConfig().getInt("settings.inbox.page-size", 10));
+        this.ttlMillis = TimeUnit.HOURS.toMillis(Math.max(1, configManager.getConfig().getInt("settings.inbox.ttl-hours", 72)));
+    }
+
+    /**
+     * Loads the inbox members and starts storing queued messages on a timer.
+     * Expired messages are pruned right away and then every hour.
+     */
+    public void start() {
+        database.loadInboxMembers().thenAccept(loaded -> Bukkit.getScheduler().runTask(plugin, () -> {
+            // Keep members added while loading
+            for (Map.Entry<String, Set<UUID>> entry : loaded.entrySet()) {
+                members.computeIfAbsent(entry.getKey(), id -> new HashSet<>()).addAll(entry.getValue());
+            }
+        }));
+
+        long ticks = Math.max(1, plugin.getConfigManager().getConfig().getInt("settings.inbox.flush-seconds", 5)) * 20L;
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, ticks, ticks);
+        prune();
+    }
+
+    /**
+     * Stops the timer and stores the queued messages after the inbox
+     * operations still running. The shutdown must wait for the returned
+     * future before the database stops accepting operations.
+     *
+     * @return A future completing once every inbox operation has finished
+     */
+    public CompletableFuture<?> stop() {
+        if (flushTask == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        flushTask.cancel();
+        flushTask = null;
+
+        flush();
+        return chain.handle((result, error) -> null);
+    }
+
+    /**
+     * Keeps a message that was just sent to a channel for its offline members.
+     *
+     * @param group The TalkGroup, which must have an inbox
+     * @param sender The sender
+     * @param line The rendered channel line
+     */
+    public void queue(TalkGroup group, CommandSender sender, String line) {
+        Set<UUID> channelMembers = members.get(group.getId());
+        if (channelMembers == null || channelMembers.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        UUID senderId = sender instanceof Player player ? player.getUniqueId() : null;
+        for (UUID memberId : channelMembers) {
+            if (memberId.equals(senderId) || Bukkit.getPlayer(memberId) != null) {
+                continue;
+            }
+
+            ArrayDeque<InboxMessage> queue = pending.computeIfAbsent(memberId, id -> new ArrayDeque<>());
+            if (queue.size() == capacity) {
+                // Only the newest messages would survive the capacity pruning anyway
+                queue.poll();
+                pendingCount--;
+                dropped.increment();
+            }
+            queue.add(new InboxMessage(memberId, group.getId(), line, now));
+            pendingCount++;
+            queued.increment();
+        }
+
+        if (pendingCount >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Records whether a quitting player keeps receiving the messages of each
+     * TalkGroup with an inbox while offline.
+     *
+     * @param player The player who is quitting
+     */
+    public void onQuit(Player player) {
+        UUID playerId = player.getUniqueId();
+        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+
+        for (TalkGroup group : plugin.getConfigManager().getAllTalkGroups().values()) {
+            if (!group.hasInbox()) {
+                continue;
+            }
+
+            boolean member = plugin.getPermissionCache().canAccess(player, group)
+                    && !data.isChannelMuted(group.getId());
+            Set<UUID> channelMembers = members.computeIfAbsent(group.getId(), id -> new HashSet<>());
+            boolean changed = member ? channelMembers.add(playerId) : channelMembers.remove(playerId);
+            if (changed) {
+                enqueue(() -> database.updateInboxMember(group.getId(), playerId, member));
+            }
+        }
+    }
+
+    /**
+     * Shows a player the oldest page of their inbox and then removes it from
+     * the inbox. Queued messages are stored first, so none are skipped. If the
+     * player is offline by the time the page is read, it stays in the inbox.
+     *
+     * @param player The player
+     * @param quiet true to show nothing if the inbox is empty, as on join
+     */
+    public void showPage(Player player, boolean quiet) {
+        UUID playerId = player.getUniqueId();
+        if (!reading.add(playerId)) {
+            // The page being read would be shown twice
+            return;
+        }
+        flush();
+        ConfigManager configManager = plugin.getConfigManager();
+        this.<DatabaseManager.InboxPage>enqueue(() -> database.readInbox(playerId, pageSize))
+                .whenComplete((page, error) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    reading.remove(playerId);
+                    if (error != null || !player.isOnline()) {
+                        return;
+                    }
+                    if (page.messages().isEmpty()) {
+                        if (!quiet) {
+                            player.sendMessage(ChatColor.translateAlternateColorCodes('&',
+                                    configManager.getMessage("inbox.empty")));
+                        }
+                        return;
+                    }
+
+                    long now = System.currentTimeMillis();
+                    player.sendMessage(ChatColor.translateAlternateColorCodes('&', configManager.getMessage(
+                            "inbox.header", "count", String.valueOf(page.messages().size() + page.remaining()))));
+                    for (InboxMessage message : page.messages()) {
+                        player.sendMessage(ChatColor.translateAlternateColorCodes('&', configManager.getMessage(
+                                "inbox.entry", "time", formatAge(now - message.createdAt())))
+                                + message.line());
+                    }
+                    if (page.remaining() > 0) {
+                        player.sendMessage(ChatColor.translateAlternateColorCodes('&', configManager.getMessage(
+                                "inbox.more", "count", String.valueOf(page.remaining()))));
+                    }
+                    delivered.add(page.messages().size());
+                    enqueue(() -> database.deleteInbox(playerId, page.lastId()));
+                }));
+    }
+
+    /**
+     * Forgets the members of TalkGroups that no longer have an inbox, for
+     * example after a reload. Their stored rows are kept until they rejoin.
+     */
+    public void retainMembers() {
+        members.keySet().removeIf(id -> {
+            TalkGroup group = plugin.getConfigManager().getTalkGroup(id);
+            return group == null || !group.hasInbox();
+        });
+    }
+
+    /**
+     * Stores the queued messages every flush interval and prunes expired
+     * ones every hour.
+     */
+    private void tick() {
+        flush();
+        if (System.currentTimeMillis() - lastPrune >= PRUNE_INTERVAL_MILLIS) {
+            prune();
+        }
+    }
+
+    private void flush() {
+        if (pendingCount == 0) {
+            return;
+        }
+        List<InboxMessage> messages = drain();
+        enqueue(() -> database.saveInbox(messages, capacity));
+    }
+
+    private void prune() {
+        lastPrune = System.currentTimeMillis();
+        long cutoff = lastPrune - ttlMillis;
+        this.<Integer>enqueue(() -> database.pruneInbox(cutoff)).thenAccept(deleted -> {
+            if (deleted > 0) {
+                plugin.getLogger().info("Pruned " + deleted + " expired inbox message(s)");
+            }
+        });
+    }
+
+    private List<InboxMessage> drain() {
+        List<InboxMessage> messages = new ArrayList<>(pendingCount);
+        for (ArrayDeque<InboxMessage> queue : pending.values()) {
+            messages.addAll(queue);
+        }
+        pending.clear();
+        pendingCount = 0;
+        return messages;
+    }
+
+    /**
+     * Runs an inbox operation after the previous one, so batches, reads and
+     * prunes never overlap and a read sees every earlier batch.
+     */
+    private <T> CompletableFuture<T> enqueue(Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<T> next = chain.handle((result, error) -> null).thenCompose(ignored -> operation.get());
+        chain = next;
+        return next;
+    }
+
+    private static String formatAge(long millis) {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis);
+        if (minutes < 60L) {
+            return minutes + "m";
+        }
+        long hours = minutes / 60L;
+        return hours < 24L ? hours + "h" : (hours / 24L) + "d";
+    }
+}
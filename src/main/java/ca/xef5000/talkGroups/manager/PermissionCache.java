@@ -0,0 +1,176 @@
+package ca.xef5000.talkGroups.manager;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import ca.xef5000.talkGroups.command.AliasCommand;
+import ca.xef5000.talkGroups.config.TalkGroupRegistry;
+import ca.xef5000.talkGroups.model.PlayerPermissions;
+import ca.xef5000.talkGroups.model.TalkGroup;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches resolved channel-access and bypass permissions per player.
+ * Permission plugins can make {@code hasPermission} expensive, and the chat
+ * path checks it once per online player per message, so results are kept
+ * until the player rejoins, changes world, gets a new command tree, the
+ * TalkGroups are reloaded, or the configured refresh interval elapses.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class PermissionCache {
+
+    private final TalkGroups plugin;
+    private final Map<UUID, PlayerPermissions> cache;
+    private final long refreshMillis;
+
+    /**
+     * Creates a new PermissionCache instance.
+     *
+     * @param plugin The plugin instance
+     * @param refreshSeconds Maximum age of a cached entry in seconds, 0 to keep entries until invalidated
+     */
+    public PermissionCache(TalkGroups plugin, int refreshSeconds) {
+        this.plugin = plugin;
+        this.cache = new ConcurrentHashMap<>();
+        this.refreshMillis = refreshSeconds > 0 ? refreshSeconds * 1000L : Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the resolved permissions of a player against the current registry.
+     *
+     * @param player The player
+     * @return The player's permissions
+     */
+    public PlayerPermissions get(Player player) {
+        return get(player, plugin.getConfigManager().getRegistry());
+    }
+
+    /**
+     * Gets the resolved permissions of a player against a registry snapshot.
+     * Callers holding TalkGroup indices should pass the snapshot they took
+     * the indices from.
+     *
+     * @param player The player
+     * @param registry The registry snapshot
+     * @return The player's permissions
+     */
+    public PlayerPermissions get(Player player, TalkGroupRegistry registry) {
+        long now = System.currentTimeMillis();
+        PlayerPermissions permissions = cache.get(player.getUniqueId());
+
+        if (permissions == null
+                || permissions.getGeneration() != registry.getGeneration()
+                || permissions.isExpired(now)) {
+            permissions = compute(player, registry, now);
+            cache.put(player.getUniqueId(), permissions);
+        }
+
+        return permissions;
+    }
+
+    /**
+     * Checks if a sender can access a TalkGroup.
+     * Non-player senders are checked directly.
+     *
+     * @param sender The command sender
+     * @param group The TalkGroup
+     * @return true if the sender can access the TalkGroup, false otherwise
+     */
+    public boolean canAccess(CommandSender sender, TalkGroup group) {
+        if (!(sender instanceof Player player)) {
+            return sender.hasPermission(group.getPermission());
+        }
+
+        TalkGroupRegistry registry = plugin.getConfigManager().getRegistry();
+        int index = registry.indexOf(group.getId());
+        if (index < 0 || registry.get(index) != group) {
+            // Stale TalkGroup from before a reload
+            return player.hasPermission(group.getPermission());
+        }
+
+        return get(player, registry).canAccess(index);
+    }
+
+    /**
+     * Checks if a sender bypasses channel cooldowns.
+     *
+     * @param sender The command sender
+     * @return true if cooldowns are bypassed, false otherwise
+     */
+    public boolean canBypassCooldown(CommandSender sender) {
+        if (sender instanceof Player player) {
+            return get(player).canBypassCooldown();
+        }
+        return sender.hasPermission(AliasCommand.BYPASS_COOLDOWN_PERMISSION);
+    }
+
+    /**
+     * Checks if a sender may use color codes in channel messages.
+     *
+     * @param sender The command sender
+     * @return true if color codes are translated, false if they are stripped
+     */
+    public boolean canUseColors(CommandSender sender) {
+        if (sender instanceof Player player) {
+            return get(player).canUseColors();
+        }
+        return sender.hasPermission(AliasCommand.COLOR_PERMISSION);
+    }
+
+    /**
+     * Resolves the permissions of a player and caches them.
+     *
+     * @param player The player
+     */
+    public void refresh(Player player) {
+        TalkGroupRegistry registry = plugin.getConfigManager().getRegistry();
+        long now = System.currentTimeMillis();
+        cache.put(player.getUniqueId(), compute(player, registry, now));
+    }
+
+    /**
+     * Drops the cached permissions of a player.
+     * They are resolved again on next access.
+     *
+     * @param playerId The player's UUID
+     */
+    public void invalidate(UUID playerId) {
+        cache.remove(playerId);
+    }
+
+    /**
+     * Drops all cached permissions.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Resolves the permissions of a player.
+     *
+     * @param player The player
+     * @param registry The registry snapshot
+     * @param now The current time in milliseconds
+     * @return The resolved permissions
+     */
+    private PlayerPermissions compute(Player player, TalkGroupRegistry registry, long now) {
+        BitSet access = new BitSet(registry.size());
+        for (int i = 0; i < registry.size(); i++) {
+            if (player.hasPermission(registry.get(i).getPermission())) {
+                access.set(i);
+            }
+        }
+
+        boolean bypassCooldown = player.hasPermission(AliasCommand.BYPASS_COOLDOWN_PERMISSION);
+        boolean useColors = player.hasPermission(AliasCommand.COLOR_PERMISSION);
+        long expiresAt = refreshMillis == Long.MAX_VALUE ? Long.MAX_VALUE : now + refreshMillis;
+
+        return new PlayerPermissions(access, bypassCooldown, useColors, registry.getGeneration(), expiresAt);
+    }
+}
@@ -2,16 +2,25 @@ package ca.xef5000.talkGroups.manager;
 
 import ca.xef5000.talkGroups.TalkGroups;
 import ca.xef5000.talkGroups.database.DatabaseManager;
+import ca.xef5000.talkGroups.database.RuntimeStateSnapshot;
+import ca.xef5000.talkGroups.metrics.MetricsRegistry;
 import ca.xef5000.talkGroups.model.PlayerData;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Manages player data including mute preferences and cooldowns.
+ * Manages player data including mute preferences and cooldowns. The cache
+ * is only used from the main thread; database results are applied there.
  * 
  * @author TalkGroups
  * @version 1.0.0
@@ -21,6 +30,10 @@ public class PlayerDataManager {
     private final TalkGroups plugin;
     private final DatabaseManager database;
     private final Map<UUID, PlayerData> playerDataCache;
+    private final Map<UUID, Object> unloading;
+    private final Executor mainThread;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
     
     /**
      * Creates a new PlayerDataManager instance.
@@ -32,6 +45,10 @@ public class PlayerDataManager {
         this.plugin = plugin;
         this.database = database;
         this.playerDataCache = new HashMap<>();
+        this.unloading = new HashMap<>();
+        this.mainThread = task -> Bukkit.getScheduler().runTask(plugin, task);
+        this.cacheHits = plugin.getMetrics().counter(MetricsRegistry.PLAYERDATA_CACHE_HITS);
+        this.cacheMisses = plugin.getMetrics().counter(MetricsRegistry.PLAYERDATA_CACHE_MISSES);
     }
     
     /**
@@ -44,13 +61,22 @@ public class PlayerDataManager {
         UUID playerId = player.getUniqueId();
         
         // Check cache first
-        if (playerDataCache.containsKey(playerId)) {
-            return CompletableFuture.completedFuture(playerDataCache.get(playerId));
+        PlayerData cached = playerDataCache.get(playerId);
+        if (cached != null) {
+            cacheHits.increment();
+            // Rejoined before the quit-time save finished, so the data stays loaded
+            unloading.remove(playerId);
+            return CompletableFuture.completedFuture(cached);
         }
+        cacheMisses.increment();
         
-        // Load from database
-        return database.loadMutedChannels(playerId).thenApply(mutedChannels -> {
-            PlayerData data = new PlayerData(playerId);
+        // Load from database, then merge on the main thread, which owns the cache
+        return database.loadMutedChannels(playerId).thenApplyAsync(mutedChannels -> {
+            // Keep data created while loading, so restored runtime state is not lost
+            PlayerData data = playerDataCache.get(playerId);
+            if (data == null) {
+                data = createPlayerData(playerId);
+            }
             
             // Restore muted channels
             for (String channelId : mutedChannels) {
@@ -61,7 +87,23 @@ public class PlayerDataManager {
             playerDataCache.put(playerId, data);
             
             return data;
-        });
+        }, mainThread);
+    }
+    
+    /**
+     * Creates the data of a player who is not cached, restoring the runtime
+     * state they had before a restart, if any.
+     * 
+     * @param playerId The player's UUID
+     * @return The new PlayerData instance
+     */
+    private PlayerData createPlayerData(UUID playerId) {
+        PlayerData data = new PlayerData(playerId);
+        RuntimeStateSnapshot snapshot = plugin.getRuntimeStateSnapshot();
+        if (snapshot != null) {
+            snapshot.restore(data);
+        }
+        return data;
     }
     
     /**
@@ -71,7 +113,24 @@ public class PlayerDataManager {
      * @return The PlayerData instance
      */
     public PlayerData getPlayerData(UUID playerId) {
-        return playerDataCache.computeIfAbsent(playerId, PlayerData::new);
+        PlayerData data = playerDataCache.get(playerId);
+        if (data != null) {
+            cacheHits.increment();
+            return data;
+        }
+
+        cacheMisses.increment();
+        return playerDataCache.computeIfAbsent(playerId, this::createPlayerData);
+    }
+    
+    /**
+     * Gets player data from cache without creating it.
+     * 
+     * @param playerId The player's UUID
+     * @return The PlayerData instance, or null if it is not loaded
+     */
+    public PlayerData getCachedPlayerData(UUID playerId) {
+        return playerDataCache.get(playerId);
     }
     
     /**
@@ -96,10 +155,13 @@ public class PlayerDataManager {
             return CompletableFuture.completedFuture(null);
         }
         
+        // Copy the muted channels here; the stages below run on the database thread
+        Set<String> mutedChannels = data.getMutedChannels();
+        
         // Clear existing muted channels in database
         return database.clearMutedChannels(playerId).thenCompose(v -> {
             // Save all currently muted channels
-            CompletableFuture<?>[] futures = data.getMutedChannels().stream()
+            CompletableFuture<?>[] futures = mutedChannels.stream()
                     .map(channelId -> database.saveMutedChannel(playerId, channelId))
                     .toArray(CompletableFuture[]::new);
             
@@ -118,15 +180,37 @@ public class PlayerDataManager {
     }
     
     /**
-     * Unloads player data from cache and saves to database.
+     * Unloads player data from cache and saves to database. If the player
+     * rejoins before the save finished, their data stays loaded.
      * 
      * @param playerId The player's UUID
      * @return CompletableFuture that completes when data is saved and unloaded
      */
     public CompletableFuture<Void> unloadPlayerData(UUID playerId) {
-        return savePlayerData(playerId).thenRun(() -> {
-            playerDataCache.remove(playerId);
-        });
+        PlayerData data = playerDataCache.get(playerId);
+        if (data == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        // Keep cooldowns and missed message counts for the runtime state snapshots
+        RuntimeStateSnapshot snapshot = plugin.getRuntimeStateSnapshot();
+        if (snapshot != null) {
+            snapshot.retain(data);
+        }
+        
+        Object token = new Object();
+        unloading.put(playerId, token);
+        return savePlayerData(playerId).whenCompleteAsync((result, error) -> {
+            Object current = unloading.get(playerId);
+            if (current == token) {
+                unloading.remove(playerId);
+                playerDataCache.remove(playerId, data);
+            } else if (current == null && snapshot != null) {
+                // Rejoined meanwhile, so the loaded data is current and the kept state outdated
+                snapshot.forget(playerId);
+            }
+            // Otherwise they quit again and the later unload finishes
+        }, mainThread);
     }
     
     /**
@@ -185,6 +269,19 @@ public class PlayerDataManager {
         }
     }
     
+    /**
+     * Persists a mute state that was already applied to the cached PlayerData.
+     * The returned future fails if the write did not succeed.
+     * 
+     * @param playerId The player's UUID
+     * @param channelId The channel ID
+     * @param muted Whether the channel is muted
+     * @return CompletableFuture that completes when the state is stored
+     */
+    public CompletableFuture<Void> persistMute(UUID playerId, String channelId, boolean muted) {
+        return database.updateMutedChannel(playerId, channelId, muted);
+    }
+    
     /**
      * Saves all cached player data to the database.
      * 
@@ -198,11 +295,35 @@ public class PlayerDataManager {
         return CompletableFuture.allOf(futures);
     }
     
+    /**
+     * Copies the muted channels of every cached player, for writing them
+     * without touching the live PlayerData from another thread.
+     * 
+     * @return The muted channel IDs by player
+     */
+    public Map<UUID, Set<String>> snapshotMutedChannels() {
+        Map<UUID, Set<String>> snapshot = new HashMap<>(playerDataCache.size() * 2);
+        for (Map.Entry<UUID, PlayerData> entry : playerDataCache.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().getMutedChannels());
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Gets the data of every cached player. Only used from the main thread.
+     * 
+     * @return An unmodifiable view of the cached player data
+     */
+    public Collection<PlayerData> getCachedPlayerData() {
+        return Collections.unmodifiableCollection(playerDataCache.values());
+    }
+    
     /**
      * Clears all cached player data.
      */
     public void clearCache() {
         playerDataCache.clear();
+        unloading.clear();
     }
 }
 
@@ -0,0 +1,77 @@
+package ca.xef5000.talkGroups.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic counters of a single TalkGroup.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class ChannelMetrics {
+
+    private final String channelId;
+    private final LongAdder messages;
+    private final LongAdder recipients;
+    private final LongAdder muted;
+
+    /**
+     * Creates a new ChannelMetrics instance.
+     *
+     * @param channelId The TalkGroup ID
+     */
+    public ChannelMetrics(String channelId) {
+        this.channelId = channelId;
+        this.messages = new LongAdder();
+        this.recipients = new LongAdder();
+        this.muted = new LongAdder();
+    }
+
+    /**
+     * Records one broadcast.
+     *
+     * @param delivered Number of players the message was delivered to
+     * @param mutedCount Number of players who had the channel muted
+     */
+    public void recordMessage(int delivered, int mutedCount) {
+        messages.increment();
+        recipients.add(delivered);
+        muted.add(mutedCount);
+    }
+
+    /**
+     * Gets the TalkGroup ID.
+     *
+     * @return The TalkGroup ID
+     */
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /**
+     * Gets the number of messages sent to the channel.
+     *
+     * @return The message count
+     */
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    /**
+     * Gets the total number of deliveries across all messages.
+     *
+     * @return The delivery count
+     */
+    public long getRecipients() {
+        return recipients.sum();
+    }
+
+    /**
+     * Gets the total number of deliveries skipped because the recipient muted the channel.
+     *
+     * @return The muted count
+     */
+    public long getMuted() {
+        return muted.sum();
+    }
+}
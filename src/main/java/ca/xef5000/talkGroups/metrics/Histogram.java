@@ -0,0 +1,237 @@
+package ca.xef5000.talkGroups.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative long values with log-linear buckets,
+ * in the style of HdrHistogram: every power of two is split into 16 linear
+ * sub-buckets, so any recorded value is reported within 6.25% of its true
+ * value across the full long range, using a fixed 960-slot array.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    /**
+     * Creates a new, empty Histogram.
+     */
+    public Histogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value The value
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+
+        long current = max.get();
+        while (v > current && !max.compareAndSet(current, v)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param startNanos The start time in nanoseconds
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Takes a consistent-enough copy of the recorded values for reporting.
+     * Values recorded concurrently may or may not be included.
+     *
+     * @return The snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sum.sum(), max.get());
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0L);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Counts recorded values at or below each bound, as needed for cumulative
+     * bucket exports. A value is counted against a bound once its whole
+     * histogram bucket lies at or below it, so the result may lag the true
+     * count by up to one bucket width. Reads the live counts in a single pass
+     * without allocating.
+     *
+     * @param bounds Upper bounds in ascending order
+     * @param out Receives the cumulative count for each bound; must be at least as long as bounds
+     * @return The total number of values seen during the pass
+     */
+    public long cumulativeCounts(long[] bounds, long[] out) {
+        int next = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long upper = lowerBoundOf(i) + widthOf(i) - 1;
+            while (next < bounds.length && upper > bounds[next]) {
+                out[next++] = seen;
+            }
+            seen += counts.get(i);
+        }
+        while (next < bounds.length) {
+            out[next++] = seen;
+        }
+        return seen;
+    }
+
+    /**
+     * Gets the sum of all recorded values.
+     *
+     * @return The sum
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long widthOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return 1L;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return 1L << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Immutable view of a Histogram at one point in time.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Gets the number of recorded values.
+         *
+         * @return The count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the sum of all recorded values.
+         *
+         * @return The sum
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Gets the largest recorded value.
+         *
+         * @return The maximum, or 0 if empty
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Gets the mean of the recorded values.
+         *
+         * @return The mean, or 0 if empty
+         */
+        public double getMean() {
+            return count == 0 ? 0.0D : (double) sum / count;
+        }
+
+        /**
+         * Gets the value at a percentile.
+         *
+         * @param percentile The percentile, between 0 and 100
+         * @return The estimated value, or 0 if empty
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0L;
+            }
+
+            long rank = Math.max(1L, (long) Math.ceil(count * (percentile / 100.0D)));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    // Middle of the bucket, never above the observed maximum
+                    return Math.min(max, lowerBoundOf(i) + widthOf(i) / 2);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package ca.xef5000.talkGroups.metrics;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Periodically writes the metrics registry to a file in the data folder.
+ * JSON dumps replace metrics.json with the latest snapshot; CSV dumps append
+ * one row per metric to metrics.csv, so the file can be graphed over time.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class MetricsDumper {
+
+    /**
+     * Output format of the dump file.
+     */
+    public enum Format {
+        JSON("metrics.json"),
+        CSV("metrics.csv");
+
+        private final String fileName;
+
+        Format(String fileName) {
+            this.fileName = fileName;
+        }
+    }
+
+    private static final String CSV_HEADER = "timestamp,type,name,count,mean,p50,p95,p99,max\n";
+
+    private final TalkGroups plugin;
+    private final MetricsRegistry registry;
+    private final Format format;
+    private final Path file;
+    private BukkitTask task;
+
+    /**
+     * Creates a new MetricsDumper instance.
+     *
+     * @param plugin The plugin instance
+     * @param registry The metrics to dump
+     * @param format The output format
+     */
+    public MetricsDumper(TalkGroups plugin, MetricsRegistry registry, Format format) {
+        this.plugin = plugin;
+        this.registry = registry;
+        this.format = format;
+        this.file = plugin.getDataFolder().toPath().resolve(format.fileName);
+    }
+
+    /**
+     * Starts dumping on an async timer.
+     *
+     * @param intervalSeconds Seconds between dumps
+     */
+    public void start(int intervalSeconds) {
+        long ticks = Math.max(1, intervalSeconds) * 20L;
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::dumpSafely, ticks, ticks);
+    }
+
+    /**
+     * Stops the timer and writes a final dump.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+            dumpSafely();
+        }
+    }
+
+    private void dumpSafely() {
+        try {
+            dump();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Writes the current metrics to the dump file. Dumps are serialized, so
+     * the final dump on stop cannot interleave with a timed one still running.
+     *
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void dump() throws IOException {
+        long now = System.currentTimeMillis();
+
+        if (format == Format.JSON) {
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temp, toJson(now), StandardCharsets.UTF_8);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } else {
+            boolean header = !Files.exists(file);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (header) {
+                    writer.write(CSV_HEADER);
+                }
+                writer.write(toCsv(now));
+            }
+        }
+    }
+
+    /**
+     * Renders the registry as a JSON document.
+     *
+     * @param now The dump time in milliseconds
+     * @return The JSON text
+     */
+    String toJson(long now) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n  \"timestamp\": ").append(now)
+                .append(",\n  \"uptimeSeconds\": ").append((now - registry.getStartTime()) / 1000L);
+
+        json.append(",\n  \"counters\": {");
+        String separator = "";
+        for (Map.Entry<String, LongAdder> entry : registry.getCounters().entrySet()) {
+            json.append(separator).append("\n    ").append(quote(entry.getKey())).append(": ").append(entry.getValue().sum());
+            separator = ",";
+        }
+
+        json.append("\n  },\n  \"gauges\": {");
+        separator = "";
+        for (Map.Entry<String, LongSupplier> entry : registry.getGauges().entrySet()) {
+            json.append(separator).append("\n    ").append(quote(entry.getKey())).append(": ").append(entry.getValue().getAsLong());
+            separator = ",";
+        }
+
+        json.append("\n  },\n  \"timersMs\": {");
+        separator = "";
+        for (Map.Entry<String, Histogram> entry : registry.getTimers().entrySet()) {
+            json.append(separator).append("\n    ").append(quote(entry.getKey())).append(": ");
+            appendJsonSummary(json, entry.getValue().snapshot(), 1_000_000.0D);
+            separator = ",";
+        }
+
+        json.append("\n  },\n  \"histograms\": {");
+        separator = "";
+        for (Map.Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+            json.append(separator).append("\n    ").append(quote(entry.getKey())).append(": ");
+            appendJsonSummary(json, entry.getValue().snapshot(), 1.0D);
+            separator = ",";
+        }
+
+        json.append("\n  },\n  \"channels\": {");
+        separator = "";
+        for (ChannelMetrics channel : registry.getChannels().values()) {
+            json.append(separator).append("\n    ").append(quote(channel.getChannelId()))
+                    .append(": {\"messages\": ").append(channel.getMessages())
+                    .append(", \"recipients\": ").append(channel.getRecipients())
+                    .append(", \"muted\": ").append(channel.getMuted()).append('}');
+            separator = ",";
+        }
+
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    /**
+     * Renders the registry as CSV rows.
+     *
+     * @param now The dump time in milliseconds
+     * @return The CSV rows, without header
+     */
+    String toCsv(long now) {
+        StringBuilder csv = new StringBuilder(1024);
+
+        for (Map.Entry<String, LongAdder> entry : registry.getCounters().entrySet()) {
+            csv.append(now).append(",counter,").append(entry.getKey()).append(',')
+                    .append(entry.getValue().sum()).append(",,,,,\n");
+        }
+        for (Map.Entry<String, LongSupplier> entry : registry.getGauges().entrySet()) {
+            csv.append(now).append(",gauge,").append(entry.getKey()).append(',')
+                    .append(entry.getValue().getAsLong()).append(",,,,,\n");
+        }
+        for (Map.Entry<String, Histogram> entry : registry.getTimers().entrySet()) {
+            csv.append(now).append(",timer_ms,").append(entry.getKey()).append(',');
+            appendCsvSummary(csv, entry.getValue().snapshot(), 1_000_000.0D);
+        }
+        for (Map.Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+            csv.append(now).append(",histogram,").append(entry.getKey()).append(',');
+            appendCsvSummary(csv, entry.getValue().snapshot(), 1.0D);
+        }
+        for (ChannelMetrics channel : registry.getChannels().values()) {
+            csv.append(now).append(",channel,").append(channel.getChannelId()).append(',')
+                    .append(channel.getMessages()).append(',')
+                    .append(format(channel.getMessages() == 0 ? 0.0D
+                            : (double) channel.getRecipients() / channel.getMessages()))
+                    .append(",,,,\n");
+        }
+
+        return csv.toString();
+    }
+
+    private static void appendJsonSummary(StringBuilder json, Histogram.Snapshot snapshot, double scale) {
+        json.append("{\"count\": ").append(snapshot.getCount())
+                .append(", \"mean\": ").append(format(snapshot.getMean() / scale))
+                .append(", \"p50\": ").append(format(snapshot.getPercentile(50) / scale))
+                .append(", \"p95\": ").append(format(snapshot.getPercentile(95) / scale))
+                .append(", \"p99\": ").append(format(snapshot.getPercentile(99) / scale))
+                .append(", \"max\": ").append(format(snapshot.getMax() / scale)).append('}');
+    }
+
+    private static void appendCsvSummary(StringBuilder csv, Histogram.Snapshot snapshot, double scale) {
+        csv.append(snapshot.getCount()).append(',')
+                .append(format(snapshot.getMean() / scale)).append(',')
+                .append(format(snapshot.getPercentile(50) / scale)).append(',')
+                .append(format(snapshot.getPercentile(95) / scale)).append(',')
+                .append(format(snapshot.getPercentile(99) / scale)).append(',')
+                .append(format(snapshot.getMax() / scale)).append('\n');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
@@ -0,0 +1,212 @@
+package ca.xef5000.talkGroups.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Central, lock-free store of the plugin's counters, histograms and gauges.
+ * Hot paths should look their metrics up once and keep the reference;
+ * recording is then a handful of striped adds with no allocation. Metrics
+ * are kept sorted by name as they are registered, so readers get live,
+ * read-only views instead of copies.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class MetricsRegistry {
+
+    /** Time spent delivering one channel message, in nanoseconds. */
+    public static final String CHAT_SEND = "chat.send";
+    /** Players a channel message was delivered to. */
+    public static final String CHAT_FANOUT = "chat.fanout";
+    /** Time spent rendering a GUI page, in nanoseconds. */
+    public static final String GUI_RENDER = "gui.render";
+    /** Time spent loading a player's muted channels, in nanoseconds. */
+    public static final String DB_LOAD = "db.load";
+    /** Time spent saving a muted channel, in nanoseconds. */
+    public static final String DB_SAVE = "db.save";
+    /** Time spent removing a muted channel, in nanoseconds. */
+    public static final String DB_REMOVE = "db.remove";
+    /** Time spent clearing a player's muted channels, in nanoseconds. */
+    public static final String DB_CLEAR = "db.clear";
+    /** Time spent storing, reading or pruning offline inbox messages, in nanoseconds. */
+    public static final String DB_INBOX = "db.inbox";
+    /** Database operations submitted but not yet completed. */
+    public static final String DB_PENDING = "db.pending";
+    /** Time from starting a configuration reload to applying it, in nanoseconds. */
+    public static final String CONFIG_RELOAD = "config.reload";
+    /** Trace lines dropped because the trace writer fell behind or could not write the file. */
+    public static final String TRACE_DROPPED = "trace.dropped";
+    /** PlayerData lookups served from the cache. */
+    public static final String PLAYERDATA_CACHE_HITS = "playerdata.cache.hits";
+    /** PlayerData lookups that had to create or load an entry. */
+    public static final String PLAYERDATA_CACHE_MISSES = "playerdata.cache.misses";
+    /** Channel messages not sent because they contained a blocked term. */
+    public static final String FILTER_BLOCKED = "filter.blocked";
+    /** Channel messages sent with blocked terms censored. */
+    public static final String FILTER_CENSORED = "filter.censored";
+    /** Channel messages sent with blocked terms and reported to staff. */
+    public static final String FILTER_FLAGGED = "filter.flagged";
+    /** Channel messages rejected because the sender was flooding. */
+    public static final String FLOOD_REJECTED = "flood.rejected";
+    /** Repeated channel messages collapsed into a repeat count. */
+    public static final String FLOOD_COLLAPSED = "flood.collapsed";
+    /** Ephemeral channels currently open. */
+    public static final String EPHEMERAL_CHANNELS = "ephemeral.channels";
+    /** Messages sent in ephemeral channels. */
+    public static final String EPHEMERAL_MESSAGES = "ephemeral.messages";
+    /** Messages kept for offline members in channel inboxes. */
+    public static final String INBOX_QUEUED = "inbox.queued";
+    /** Inbox messages dropped before they were stored because a member's queue was full. */
+    public static final String INBOX_DROPPED = "inbox.dropped";
+    /** Inbox messages shown to members after they joined. */
+    public static final String INBOX_DELIVERED = "inbox.delivered";
+    /** Channel lines that waited for a later tick because the tick budget was spent. */
+    public static final String OUTBOUND_DEFERRED = "outbound.deferred";
+    /** Low priority channel lines dropped because the outbound queue was full or they waited too long. */
+    public static final String OUTBOUND_SHED_LOW = "outbound.shed.low";
+    /** Normal priority channel lines dropped because the outbound queue was full of them. */
+    public static final String OUTBOUND_SHED_NORMAL = "outbound.shed.normal";
+    /** Channel lines waiting in the outbound queue. */
+    public static final String OUTBOUND_DEPTH = "outbound.depth";
+
+    private final Map<String, LongAdder> counters;
+    private final Map<String, Histogram> timers;
+    private final Map<String, Histogram> histograms;
+    private final Map<String, LongSupplier> gauges;
+    private final Map<String, ChannelMetrics> channels;
+    private final Map<String, LongAdder> counterView;
+    private final Map<String, Histogram> timerView;
+    private final Map<String, Histogram> histogramView;
+    private final Map<String, LongSupplier> gaugeView;
+    private final Map<String, ChannelMetrics> channelView;
+    private final long startTime;
+
+    /**
+     * Creates a new, empty MetricsRegistry.
+     */
+    public MetricsRegistry() {
+        this.counters = new ConcurrentSkipListMap<>();
+        this.timers = new ConcurrentSkipListMap<>();
+        this.histograms = new ConcurrentSkipListMap<>();
+        this.gauges = new ConcurrentSkipListMap<>();
+        this.channels = new ConcurrentSkipListMap<>();
+        this.counterView = Collections.unmodifiableMap(counters);
+        this.timerView = Collections.unmodifiableMap(timers);
+        this.histogramView = Collections.unmodifiableMap(histograms);
+        this.gaugeView = Collections.unmodifiableMap(gauges);
+        this.channelView = Collections.unmodifiableMap(channels);
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets or creates a counter.
+     *
+     * @param name The metric name
+     * @return The counter
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Gets or creates a histogram of durations in nanoseconds.
+     *
+     * @param name The metric name
+     * @return The timer histogram
+     */
+    public Histogram timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /**
+     * Gets or creates a histogram of plain values.
+     *
+     * @param name The metric name
+     * @return The histogram
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge with the same name.
+     *
+     * @param name The metric name
+     * @param supplier Supplies the current value when read
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Gets or creates the traffic counters of a TalkGroup.
+     *
+     * @param channelId The TalkGroup ID
+     * @return The channel metrics
+     */
+    public ChannelMetrics channel(String channelId) {
+        ChannelMetrics metrics = channels.get(channelId);
+        if (metrics == null) {
+            metrics = channels.computeIfAbsent(channelId, ChannelMetrics::new);
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets all counters, sorted by name.
+     *
+     * @return Live, unmodifiable view of name to counter
+     */
+    public Map<String, LongAdder> getCounters() {
+        return counterView;
+    }
+
+    /**
+     * Gets all timer histograms, sorted by name.
+     *
+     * @return Live, unmodifiable view of name to histogram
+     */
+    public Map<String, Histogram> getTimers() {
+        return timerView;
+    }
+
+    /**
+     * Gets all value histograms, sorted by name.
+     *
+     * @return Live, unmodifiable view of name to histogram
+     */
+    public Map<String, Histogram> getHistograms() {
+        return histogramView;
+    }
+
+    /**
+     * Gets all gauges, sorted by name.
+     *
+     * @return Live, unmodifiable view of name to value supplier
+     */
+    public Map<String, LongSupplier> getGauges() {
+        return gaugeView;
+    }
+
+    /**
+     * Gets the traffic counters of all TalkGroups that saw traffic, sorted by ID.
+     *
+     * @return Live, unmodifiable view of TalkGroup ID to channel metrics
+     */
+    public Map<String, ChannelMetrics> getChannels() {
+        return channelView;
+    }
+
+    /**
+     * Gets the time at which collection started.
+     *
+     * @return Start time in milliseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+}
@@ -0,0 +1,275 @@
+package ca.xef5000.talkGroups.metrics;
+
+import ca.xef5000.talkGroups.TalkGroups;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Serves the metrics registry in the Prometheus text exposition format on
+ * {@code /metrics}. Requests are handled on a single daemon thread, which
+ * lets every scrape render into the same text and byte buffers and read
+ * histogram buckets in place instead of copying them.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class PrometheusExporter implements HttpHandler {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Bucket bounds of timer histograms, in nanoseconds. */
+    private static final long[] LATENCY_BOUNDS = {
+            50_000L, 100_000L, 250_000L, 500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L,
+            25_000_000L, 50_000_000L, 100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L
+    };
+    private static final String[] LATENCY_LABELS = {
+            "0.00005", "0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005", "0.01",
+            "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5"
+    };
+
+    /** Bucket bounds of plain value histograms. */
+    private static final long[] VALUE_BOUNDS = {0L, 1L, 2L, 5L, 10L, 25L, 50L, 100L, 250L, 500L, 1000L, 2500L};
+    private static final String[] VALUE_LABELS = {"0", "1", "2", "5", "10", "25", "50", "100", "250", "500", "1000", "2500"};
+
+    private final TalkGroups plugin;
+    private final MetricsRegistry registry;
+    private final InetSocketAddress address;
+    private final Map<String, String> counterNames;
+    private final Map<String, String> gaugeNames;
+    private final Map<String, String> timerNames;
+    private final Map<String, String> histogramNames;
+    private final StringBuilder text;
+    private final long[] cumulative;
+    private byte[] body;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Creates a new PrometheusExporter instance.
+     *
+     * @param plugin The plugin instance
+     * @param registry The metrics to export
+     * @param address The address to listen on
+     */
+    public PrometheusExporter(TalkGroups plugin, MetricsRegistry registry, InetSocketAddress address) {
+        this.plugin = plugin;
+        this.registry = registry;
+        this.address = address;
+        this.counterNames = new HashMap<>();
+        this.gaugeNames = new HashMap<>();
+        this.timerNames = new HashMap<>();
+        this.histogramNames = new HashMap<>();
+        this.text = new StringBuilder(8192);
+        this.cumulative = new long[Math.max(LATENCY_BOUNDS.length, VALUE_BOUNDS.length)];
+        this.body = new byte[8192];
+    }
+
+    /**
+     * Starts listening for scrapes.
+     *
+     * @throws IOException if the address could not be bound
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(address, 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TalkGroups-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this);
+        server.start();
+
+        plugin.getLogger().info("Serving Prometheus metrics on http://"
+                + address.getHostString() + ":" + server.getAddress().getPort() + "/metrics");
+    }
+
+    /**
+     * Stops the HTTP server.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+
+            if (!head && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            int length;
+            try {
+                render();
+                length = encode();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to render metrics", e);
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (head) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body, 0, length);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Renders every metric into the text buffer.
+     *
+     * @return The rendered text
+     */
+    CharSequence render() {
+        text.setLength(0);
+
+        for (Map.Entry<String, LongAdder> entry : registry.getCounters().entrySet()) {
+            String name = name(counterNames, entry.getKey(), "_total");
+            type(name, "counter");
+            text.append(name).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+
+        for (Map.Entry<String, LongSupplier> entry : registry.getGauges().entrySet()) {
+            String name = name(gaugeNames, entry.getKey(), "");
+            type(name, "gauge");
+            text.append(name).append(' ').append(entry.getValue().getAsLong()).append('\n');
+        }
+
+        for (Map.Entry<String, Histogram> entry : registry.getTimers().entrySet()) {
+            appendHistogram(name(timerNames, entry.getKey(), "_seconds"), entry.getValue(),
+                    LATENCY_BOUNDS, LATENCY_LABELS, 1_000_000_000.0D);
+        }
+
+        for (Map.Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+            appendHistogram(name(histogramNames, entry.getKey(), ""), entry.getValue(), VALUE_BOUNDS, VALUE_LABELS, 1.0D);
+        }
+
+        Map<String, ChannelMetrics> channels = registry.getChannels();
+        if (!channels.isEmpty()) {
+            type("talkgroups_channel_messages_total", "counter");
+            for (ChannelMetrics channel : channels.values()) {
+                appendChannelSample("talkgroups_channel_messages_total", channel, channel.getMessages());
+            }
+            type("talkgroups_channel_recipients_total", "counter");
+            for (ChannelMetrics channel : channels.values()) {
+                appendChannelSample("talkgroups_channel_recipients_total", channel, channel.getRecipients());
+            }
+            type("talkgroups_channel_muted_total", "counter");
+            for (ChannelMetrics channel : channels.values()) {
+                appendChannelSample("talkgroups_channel_muted_total", channel, channel.getMuted());
+            }
+        }
+
+        return text;
+    }
+
+    private void appendHistogram(String name, Histogram histogram, long[] bounds, String[] labels, double scale) {
+        long count = histogram.cumulativeCounts(bounds, cumulative);
+
+        type(name, "histogram");
+        for (int i = 0; i < bounds.length; i++) {
+            text.append(name).append("_bucket{le=\"").append(labels[i]).append("\"} ")
+                    .append(cumulative[i]).append('\n');
+        }
+        text.append(name).append("_bucket{le=\"+Inf\"} ").append(count).append('\n');
+        text.append(name).append("_sum ");
+        if (scale == 1.0D) {
+            text.append(histogram.getSum());
+        } else {
+            text.append(histogram.getSum() / scale);
+        }
+        text.append('\n');
+        text.append(name).append("_count ").append(count).append('\n');
+    }
+
+    private void appendChannelSample(String name, ChannelMetrics channel, long value) {
+        text.append(name).append("{channel=\"");
+        String id = channel.getChannelId();
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == '\\' || c == '"') {
+                text.append('\\').append(c);
+            } else if (c == '\n') {
+                text.append("\\n");
+            } else {
+                text.append(c);
+            }
+        }
+        text.append("\"} ").append(value).append('\n');
+    }
+
+    private void type(String name, String type) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Maps a registry name such as "db.save" to a Prometheus metric name,
+     * caching the result so steady-state scrapes build no new strings.
+     */
+    private static String name(Map<String, String> cache, String metric, String suffix) {
+        String name = cache.get(metric);
+        if (name == null) {
+            StringBuilder builder = new StringBuilder("talkgroups_");
+            for (int i = 0; i < metric.length(); i++) {
+                char c = metric.charAt(i);
+                builder.append(Character.isLetterOrDigit(c) && c < 0x80 ? c : '_');
+            }
+            name = builder.append(suffix).toString();
+            cache.put(metric, name);
+        }
+        return name;
+    }
+
+    /**
+     * Encodes the text buffer into the reusable body array.
+     *
+     * @return The number of bytes written
+     */
+    private int encode() {
+        int length = text.length();
+        if (body.length < length) {
+            body = new byte[Math.max(length, body.length * 2)];
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Non-ASCII channel IDs are rare, fall back to the JDK encoder
+                body = text.toString().getBytes(StandardCharsets.UTF_8);
+                return body.length;
+            }
+            body[i] = (byte) c;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,197 @@
+package ca.xef5000.talkGroups.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends trace lines to a rotating log file from a background thread.
+ * Lines are handed over through a bounded queue; if the disk falls behind,
+ * new lines are dropped and counted instead of blocking the caller. After
+ * an I/O error the lines being written are dropped and the file is reopened
+ * for the next line, so the writer keeps running.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class TraceWriter implements Runnable {
+
+    private static final int QUEUE_CAPACITY = 1024;
+    // Wakes the writer on stop, compared by identity
+    private static final String STOP = new String("");
+
+    private final Logger logger;
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final BlockingQueue<String> queue;
+    private final LongAdder dropped;
+    private volatile boolean running;
+    private Thread thread;
+    private BufferedWriter writer;
+    private long written;
+
+    /**
+     * Creates a new TraceWriter instance.
+     *
+     * @param logger Logger for I/O errors
+     * @param file The active trace file; rotated files get a numeric suffix
+     * @param maxBytes Size after which the file is rotated
+     * @param maxFiles Number of rotated files to keep
+     * @param dropped Counter of lines dropped because the queue was full or they could not be written
+     */
+    public TraceWriter(Logger logger, Path file, long maxBytes, int maxFiles, LongAdder dropped) {
+        this.logger = logger;
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.dropped = dropped;
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "TalkGroups-Tracer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the writer thread after flushing queued lines. The thread is
+     * woken with a marker line rather than interrupted, since an interrupt
+     * would close the trace file in the middle of a write.
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            // If the queue is full the writer is busy and sees the flag on its next poll
+            queue.offer(STOP);
+            try {
+                thread.join(2000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /**
+     * Queues a line for writing without blocking.
+     *
+     * @param line The line, without line terminator
+     */
+    public void write(String line) {
+        if (!queue.offer(line)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean failing = false;
+        try {
+            while (running || !queue.isEmpty()) {
+                String line;
+                try {
+                    line = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+
+                if (line == null || line == STOP) {
+                    continue;
+                }
+
+                int batch = 1;
+                try {
+                    append(line);
+                    while ((line = queue.poll()) != null) {
+                        if (line != STOP) {
+                            batch++;
+                            append(line);
+                        }
+                    }
+                    writer.flush();
+                    if (failing) {
+                        logger.info("Writing trace file " + file.getFileName() + " again");
+                        failing = false;
+                    }
+                } catch (IOException e) {
+                    // Lose this batch but keep running; the file is reopened for the next line
+                    dropped.add(batch);
+                    if (!failing) {
+                        logger.log(Level.WARNING, "Failed to write trace file " + file.getFileName()
+                                + ", dropping traces until it can be written", e);
+                        failing = true;
+                    }
+                    close();
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void append(String line) throws IOException {
+        if (writer == null) {
+            open();
+        } else if (written >= maxBytes) {
+            rotate();
+        }
+
+        writer.write(line);
+        writer.newLine();
+        written += line.length() + 1;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        written = Files.size(file);
+    }
+
+    private void rotate() throws IOException {
+        writer.close();
+
+        // trace.log.N-1 -> trace.log.N, ..., trace.log -> trace.log.1
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = rotated(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+
+        open();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Failed to close trace file", e);
+            }
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ca.xef5000.talkGroups.metrics;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Opt-in tracing of slow operations. While enabled, callers break an
+ * operation into named stages; operations whose total time exceeds the
+ * threshold are written to the trace file with their per-stage breakdown.
+ * When disabled, {@link #begin(String, String)} returns null and the
+ * instrumented code skips all timing.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class Tracer {
+
+    private static final int MAX_STAGES = 16;
+
+    private final TraceWriter writer;
+    private final long thresholdNanos;
+    private final ThreadLocal<Trace> traces;
+
+    /**
+     * Creates a new Tracer instance.
+     *
+     * @param writer Destination of slow traces, or null to disable tracing
+     * @param thresholdNanos Total time above which a trace is written
+     */
+    public Tracer(TraceWriter writer, long thresholdNanos) {
+        this.writer = writer;
+        this.thresholdNanos = thresholdNanos;
+        this.traces = ThreadLocal.withInitial(Trace::new);
+    }
+
+    /**
+     * Creates a Tracer that records nothing.
+     *
+     * @return The disabled Tracer
+     */
+    public static Tracer disabled() {
+        return new Tracer(null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Checks whether tracing is enabled.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Starts tracing an operation on the current thread. The returned trace is
+     * reused by the thread's next operation, so it must be finished before
+     * another one begins and must not be shared with other threads.
+     *
+     * @param operation The operation, for example "chat"
+     * @param subject What the operation acts on, for example the TalkGroup ID
+     * @return The trace, or null if tracing is disabled
+     */
+    public Trace begin(String operation, String subject) {
+        if (writer == null) {
+            return null;
+        }
+        Trace trace = traces.get();
+        trace.reset(operation, subject, System.nanoTime());
+        return trace;
+    }
+
+    /**
+     * Starts tracing an operation that began earlier, such as a task that
+     * waited in a queue before running.
+     *
+     * @param operation The operation
+     * @param subject What the operation acts on
+     * @param startNanos The {@link System#nanoTime()} at which the operation began
+     * @return The trace, or null if tracing is disabled
+     */
+    public Trace begin(String operation, String subject, long startNanos) {
+        if (writer == null) {
+            return null;
+        }
+        Trace trace = traces.get();
+        trace.reset(operation, subject, startNanos);
+        return trace;
+    }
+
+    /**
+     * Stops the trace writer.
+     */
+    public void stop() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    /**
+     * Stage timings of one traced operation.
+     */
+    public final class Trace {
+        private final String[] names;
+        private final long[] nanos;
+        private String operation;
+        private String subject;
+        private String detail;
+        private long start;
+        private long mark;
+        private long nested;
+        private int stages;
+
+        private Trace() {
+            this.names = new String[MAX_STAGES];
+            this.nanos = new long[MAX_STAGES];
+        }
+
+        private void reset(String operation, String subject, long start) {
+            this.operation = operation;
+            this.subject = subject;
+            this.detail = null;
+            this.start = start;
+            this.mark = start;
+            this.nested = 0L;
+            this.stages = 0;
+        }
+
+        /**
+         * Attaches extra context to the trace line, such as the sender.
+         *
+         * @param detail The detail text
+         */
+        public void detail(String detail) {
+            this.detail = detail;
+        }
+
+        /**
+         * Ends the current stage. Its duration is the time since the previous
+         * stage ended, minus any time recorded with {@link #record(String, long)}
+         * in between.
+         *
+         * @param name The stage name
+         */
+        public void stage(String name) {
+            long now = System.nanoTime();
+            add(name, now - mark - nested);
+            mark = now;
+            nested = 0L;
+        }
+
+        /**
+         * Records a stage measured by the caller, such as time accumulated
+         * inside a loop. It is reported separately and excluded from the
+         * enclosing stage.
+         *
+         * @param name The stage name
+         * @param duration The duration in nanoseconds
+         */
+        public void record(String name, long duration) {
+            add(name, duration);
+            nested += duration;
+        }
+
+        private void add(String name, long duration) {
+            for (int i = 0; i < stages; i++) {
+                if (names[i].equals(name)) {
+                    nanos[i] += duration;
+                    return;
+                }
+            }
+            if (stages < MAX_STAGES) {
+                names[stages] = name;
+                nanos[stages] = duration;
+                stages++;
+            }
+        }
+
+        /**
+         * Finishes the operation and writes it to the trace file if it took
+         * longer than the threshold.
+         */
+        public void finish() {
+            long total = System.nanoTime() - start;
+            if (total < thresholdNanos) {
+                return;
+            }
+
+            StringBuilder line = new StringBuilder(128);
+            line.append(Instant.now()).append(' ').append(operation);
+            if (subject != null) {
+                line.append(' ').append(subject);
+            }
+            if (detail != null) {
+                line.append(' ').append(detail);
+            }
+            line.append(" total=").append(millis(total));
+            for (int i = 0; i < stages; i++) {
+                line.append(' ').append(names[i]).append('=').append(millis(nanos[i]));
+            }
+            writer.write(line.toString());
+        }
+
+        private String millis(long value) {
+            return String.format(Locale.ROOT, "%.3fms", value / 1_000_000.0D);
+        }
+    }
+}
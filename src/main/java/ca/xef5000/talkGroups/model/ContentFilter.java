@@ -0,0 +1,308 @@
+package ca.xef5000.talkGroups.model;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Blocked words and phrases of a TalkGroup, compiled into one Aho-Corasick
+ * automaton. A message is checked in a single pass with one table lookup
+ * per character, however many terms are configured. Matching ignores case
+ * and color codes and, if enabled, reads common leetspeak substitutions such
+ * as "4" for "a". Instances are immutable and safe to share between threads.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public final class ContentFilter {
+
+    /**
+     * What happens to a message containing a blocked term.
+     */
+    public enum Action {
+        /** The message is not sent. */
+        BLOCK,
+        /** Blocked terms are replaced with asterisks. */
+        CENSOR,
+        /** The message is sent unchanged and staff are notified. */
+        FLAG;
+
+        /**
+         * Parses an action name, ignoring case.
+         *
+         * @param name The name, such as "censor"
+         * @return The action, or null if the name is unknown
+         */
+        public static Action parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final char CENSOR_CHAR = '*';
+    private static final char[] LEET = new char[128];
+
+    static {
+        for (char c = 0; c < LEET.length; c++) {
+            LEET[c] = c;
+        }
+        String from = "0134578@$!+|";
+        String to = "oieastbasitl";
+        for (int i = 0; i < from.length(); i++) {
+            LEET[from.charAt(i)] = to.charAt(i);
+        }
+    }
+
+    private final List<String> terms;
+    private final Action action;
+    private final boolean leetspeak;
+    // Computed once, TalkGroup hashes include the filter
+    private final int hash;
+
+    // Characters of all terms, sorted; class i + 1 is alphabet[i], class 0 is every other character
+    private final char[] alphabet;
+    private final int[] asciiClass;
+    private final int width;
+    // Full transition table: delta[state * width + class] is the next state, state 0 is the root
+    private final int[] delta;
+    // Length of the longest term ending in each state, 0 if none
+    private final int[] matchLength;
+
+    private ContentFilter(List<String> terms, Action action, boolean leetspeak) {
+        this.terms = terms;
+        this.action = action;
+        this.leetspeak = leetspeak;
+        this.hash = (terms.hashCode() * 31 + action.hashCode()) * 31 + Boolean.hashCode(leetspeak);
+
+        TreeSet<Character> chars = new TreeSet<>();
+        int maxStates = 1;
+        for (String term : terms) {
+            for (int i = 0; i < term.length(); i++) {
+                chars.add(term.charAt(i));
+            }
+            maxStates += term.length();
+        }
+
+        this.alphabet = new char[chars.size()];
+        this.asciiClass = new int[128];
+        int index = 0;
+        for (char c : chars) {
+            alphabet[index++] = c;
+            if (c < 128) {
+                asciiClass[c] = index;
+            }
+        }
+        this.width = alphabet.length + 1;
+
+        // Trie; 0 marks a missing child since nothing points back to the root
+        int[] next = new int[maxStates * width];
+        int[] length = new int[maxStates];
+        int states = 1;
+        for (String term : terms) {
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                int slot = state * width + classOf(term.charAt(i));
+                if (next[slot] == 0) {
+                    next[slot] = states++;
+                }
+                state = next[slot];
+            }
+            length[state] = term.length();
+        }
+
+        // Breadth-first, turn failure links into direct transitions
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 1; c < width; c++) {
+            int child = next[c];
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int fallback = fail[state];
+            length[state] = Math.max(length[state], length[fallback]);
+            for (int c = 1; c < width; c++) {
+                int slot = state * width + c;
+                int child = next[slot];
+                if (child == 0) {
+                    next[slot] = next[fallback * width + c];
+                } else {
+                    fail[child] = next[fallback * width + c];
+                    queue.add(child);
+                }
+            }
+        }
+
+        this.delta = Arrays.copyOf(next, states * width);
+        this.matchLength = Arrays.copyOf(length, states);
+    }
+
+    /**
+     * Compiles blocked terms into a filter.
+     *
+     * @param terms The blocked words and phrases; blank ones are ignored
+     * @param action What happens to a message containing one of them
+     * @param leetspeak true to also match leetspeak spellings
+     * @return The filter, or null if there are no terms
+     */
+    public static ContentFilter compile(Collection<String> terms, Action action, boolean leetspeak) {
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String term : terms) {
+            String trimmed = term.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            StringBuilder builder = new StringBuilder(trimmed.length());
+            for (int i = 0; i < trimmed.length(); i++) {
+                builder.append(normalize(trimmed.charAt(i), leetspeak));
+            }
+            normalized.add(builder.toString());
+        }
+
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        return new ContentFilter(List.copyOf(normalized), action, leetspeak);
+    }
+
+    /**
+     * Gets what happens to a message containing a blocked term.
+     *
+     * @return The action
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Gets the number of distinct blocked terms.
+     *
+     * @return The term count
+     */
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Checks whether part of a text contains a blocked term.
+     *
+     * @param text The text
+     * @param from Index of the first character to check
+     * @param to Index after the last character to check
+     * @return true if a blocked term was found
+     */
+    public boolean matches(CharSequence text, int from, int to) {
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == ChatColor.COLOR_CHAR) {
+                i++;
+                continue;
+            }
+            state = delta[state * width + classOf(normalize(c, leetspeak))];
+            if (matchLength[state] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces every blocked term in part of a text with asterisks. Color
+     * codes inside a term are kept, so the text keeps its length.
+     *
+     * @param text The text
+     * @param from Index of the first character to check
+     * @param to Index after the last character to check
+     * @return The number of terms replaced
+     */
+    public int censor(StringBuilder text, int from, int to) {
+        int state = 0;
+        int censored = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == ChatColor.COLOR_CHAR) {
+                i++;
+                continue;
+            }
+            state = delta[state * width + classOf(normalize(c, leetspeak))];
+            int remaining = matchLength[state];
+            if (remaining == 0) {
+                continue;
+            }
+
+            // Walk back over the term, skipping color codes
+            censored++;
+            for (int j = i; j >= from && remaining > 0; j--) {
+                if (text.charAt(j) == ChatColor.COLOR_CHAR) {
+                    continue;
+                }
+                if (j > from && text.charAt(j - 1) == ChatColor.COLOR_CHAR) {
+                    j--;
+                    continue;
+                }
+                text.setCharAt(j, CENSOR_CHAR);
+                remaining--;
+            }
+        }
+        return censored;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClass[c];
+        }
+        int index = Arrays.binarySearch(alphabet, c);
+        return index < 0 ? 0 : index + 1;
+    }
+
+    private static char normalize(char c, boolean leetspeak) {
+        if (c < 128) {
+            if (c >= 'A' && c <= 'Z') {
+                return (char) (c + ('a' - 'A'));
+            }
+            return leetspeak ? LEET[c] : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Compares terms, action and leetspeak setting, so a reload can tell an
+     * unchanged filter apart from an edited one.
+     *
+     * @param o The object to compare with
+     * @return true if both filters were compiled from the same settings
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContentFilter other)) {
+            return false;
+        }
+        return hash == other.hash && action == other.action && leetspeak == other.leetspeak
+                && terms.equals(other.terms);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return action.name().toLowerCase(Locale.ROOT) + " " + terms.size() + " term(s)"
+                + (leetspeak ? " with leetspeak" : "");
+    }
+}
@@ -0,0 +1,17 @@
+package ca.xef5000.talkGroups.model;
+
+import java.util.UUID;
+
+/**
+ * A channel message kept for a member who was offline when it was sent.
+ *
+ * @param playerId The member the message is kept for
+ * @param channelId The TalkGroup ID
+ * @param line The rendered channel line
+ * @param createdAt When the message was sent, in epoch millis
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public record InboxMessage(UUID playerId, String channelId, String line, long createdAt) {
+}
@@ -214,5 +214,74 @@ public class PlayerData {
         long timeSince = System.currentTimeMillis() - lastNotify;
         return (int) (timeSince / 1000);
     }
+    
+    /**
+     * Passes the runtime state of every channel to a consumer: the cooldown,
+     * the missed message count and the last notification time. Expired
+     * cooldowns are left out. Values that are not set are passed as 0.
+     * 
+     * @param now The current time in epoch millis
+     * @param consumer Receives the state of each channel that has any
+     */
+    public void forEachRuntimeState(long now, RuntimeStateConsumer consumer) {
+        for (Map.Entry<String, Long> entry : cooldowns.entrySet()) {
+            String channelId = entry.getKey();
+            long cooldownEnd = entry.getValue() > now ? entry.getValue() : 0L;
+            int missed = missedMessages.getOrDefault(channelId, 0);
+            long notified = lastNotification.getOrDefault(channelId, 0L);
+            if (cooldownEnd != 0L || missed != 0 || notified != 0L) {
+                consumer.accept(channelId, cooldownEnd, missed, notified);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : missedMessages.entrySet()) {
+            String channelId = entry.getKey();
+            if (!cooldowns.containsKey(channelId)) {
+                consumer.accept(channelId, 0L, entry.getValue(), lastNotification.getOrDefault(channelId, 0L));
+            }
+        }
+        for (Map.Entry<String, Long> entry : lastNotification.entrySet()) {
+            String channelId = entry.getKey();
+            if (!cooldowns.containsKey(channelId) && !missedMessages.containsKey(channelId)) {
+                consumer.accept(channelId, 0L, 0, entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Restores the runtime state of a channel, for example from before a
+     * restart. Values of 0 are left unset.
+     * 
+     * @param channelId The channel ID
+     * @param cooldownEnd When the cooldown ends, in epoch millis
+     * @param missed The number of missed messages
+     * @param notified When the player was last notified, in epoch millis
+     */
+    public void restoreRuntimeState(String channelId, long cooldownEnd, int missed, long notified) {
+        if (cooldownEnd > System.currentTimeMillis()) {
+            cooldowns.put(channelId, cooldownEnd);
+        }
+        if (missed > 0) {
+            missedMessages.put(channelId, missed);
+        }
+        if (notified != 0L) {
+            lastNotification.put(channelId, notified);
+        }
+    }
+    
+    /**
+     * Receives the runtime state of one channel.
+     */
+    @FunctionalInterface
+    public interface RuntimeStateConsumer {
+        
+        /**
+         * Accepts the state of a channel.
+         * 
+         * @param channelId The channel ID
+         * @param cooldownEnd When the cooldown ends in epoch millis, or 0
+         * @param missed The number of missed messages, or 0
+         * @param notified When the player was last notified in epoch millis, or 0
+         */
+        void accept(String channelId, long cooldownEnd, int missed, long notified);
+    }
 }
-
@@ -0,0 +1,85 @@
+package ca.xef5000.talkGroups.model;
+
+import java.util.BitSet;
+
+/**
+ * Resolved permissions of a player: which TalkGroups they can access,
+ * plus the bypass nodes checked on the chat path.
+ * Instances are immutable and tied to one TalkGroup registry generation.
+ *
+ * @author TalkGroups
+ * @version 1.0.0
+ */
+public class PlayerPermissions {
+
+    private final BitSet channelAccess;
+    private final boolean bypassCooldown;
+    private final boolean useColors;
+    private final int generation;
+    private final long expiresAt;
+
+    /**
+     * Creates a new PlayerPermissions instance.
+     *
+     * @param channelAccess Bit set of accessible TalkGroup indices
+     * @param bypassCooldown Whether the player bypasses channel cooldowns
+     * @param useColors Whether the player may use color codes in messages
+     * @param generation The registry generation the indices refer to
+     * @param expiresAt Time in milliseconds after which the entry must be recomputed
+     */
+    public PlayerPermissions(BitSet channelAccess, boolean bypassCooldown, boolean useColors,
+                             int generation, long expiresAt) {
+        this.channelAccess = channelAccess;
+        this.bypassCooldown = bypassCooldown;
+        this.useColors = useColors;
+        this.generation = generation;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Checks if the player can access the TalkGroup at an index.
+     *
+     * @param index The TalkGroup index in the registry
+     * @return true if accessible, false otherwise
+     */
+    public boolean canAccess(int index) {
+        return channelAccess.get(index);
+    }
+
+    /**
+     * Checks if the player bypasses channel cooldowns.
+     *
+     * @return true if cooldowns are bypassed, false otherwise
+     */
+    public boolean canBypassCooldown() {
+        return bypassCooldown;
+    }
+
+    /**
+     * Checks if the player may use color codes in channel messages.
+     *
+     * @return true if color codes are translated, false if they are stripped
+     */
+    public boolean canUseColors() {
+        return useColors;
+    }
+
+    /**
+     * Gets the registry generation these permissions were resolved against.
+     *
+     * @return The registry generation
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Checks if these permissions are too old to be trusted.
+     *
+     * @param now The current time in milliseconds
+     * @return true if expired, false otherwise
+     */
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
@@ -2,6 +2,13 @@ package ca.xef5000.talkGroups.model;
 
 import org.bukkit.ChatColor;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
 /**
  * Represents a custom chat channel (TalkGroup) with configurable properties.
  * 
@@ -20,6 +27,16 @@ public class TalkGroup {
     private final String alias;
     private final String prefix;
     private final String suffix;
+    private final int radius;
+    private final String quickPrefix;
+    private final int duplicateWindow;
+    private final int floodMessages;
+    private final int floodSeconds;
+    private final boolean inbox;
+    private final Priority priority;
+    private final int hash;
+    private final Set<String> worlds;
+    private final ContentFilter filter;
     
     /**
      * Private constructor - use Builder to create instances.
@@ -35,6 +52,17 @@ public class TalkGroup {
         this.alias = builder.alias;
         this.prefix = builder.prefix;
         this.suffix = builder.suffix;
+        this.radius = builder.radius;
+        this.quickPrefix = builder.quickPrefix;
+        this.duplicateWindow = builder.duplicateWindow;
+        this.floodMessages = builder.floodMessages;
+        this.floodSeconds = builder.floodSeconds;
+        this.inbox = builder.inbox;
+        this.priority = builder.priority;
+        this.filter = builder.filter;
+        this.worlds = builder.worlds;
+        this.hash = Objects.hash(id, name, permission, cooldown, silencable, notify, notifyDelay, alias, prefix, suffix,
+                radius, quickPrefix, duplicateWindow, floodMessages, floodSeconds, inbox, priority, worlds, filter);
     }
     
     /**
@@ -154,6 +182,185 @@ public class TalkGroup {
         return ChatColor.translateAlternateColorCodes('&', suffix);
     }
     
+    /**
+     * Gets the distance in blocks within which players hear this TalkGroup.
+     * 
+     * @return The radius, or 0 if messages reach the whole server
+     */
+    public int getRadius() {
+        return radius;
+    }
+    
+    /**
+     * Gets the text that, typed at the start of a chat message, sends the
+     * rest of the message to this TalkGroup.
+     * 
+     * @return The quick prefix, or an empty string if none is set
+     */
+    public String getQuickPrefix() {
+        return quickPrefix;
+    }
+    
+    /**
+     * Gets the names of the worlds this TalkGroup is limited to.
+     * 
+     * @return The world names, or an empty set for all worlds
+     */
+    public Set<String> getWorlds() {
+        return worlds;
+    }
+    
+    /**
+     * Gets how long a repeated message is collapsed for.
+     * 
+     * @return The window in seconds, 0 if repeats are not collapsed
+     */
+    public int getDuplicateWindow() {
+        return duplicateWindow;
+    }
+    
+    /**
+     * Gets how many messages a player can send within {@link #getFloodSeconds()}.
+     * 
+     * @return The message limit, 0 if floods are not rejected
+     */
+    public int getFloodMessages() {
+        return floodMessages;
+    }
+    
+    /**
+     * Gets the time span of the flood limit.
+     * 
+     * @return The span in seconds
+     */
+    public int getFloodSeconds() {
+        return floodSeconds;
+    }
+    
+    /**
+     * Checks whether repeats are collapsed or floods rejected.
+     * 
+     * @return true if a duplicate window or flood limit is set
+     */
+    public boolean hasFloodLimits() {
+        return duplicateWindow > 0 || floodMessages > 0;
+    }
+    
+    /**
+     * Checks whether messages are kept for members who are offline.
+     * 
+     * @return true if the TalkGroup has an offline inbox
+     */
+    public boolean hasInbox() {
+        return inbox;
+    }
+    
+    /**
+     * Gets how urgently messages are delivered when the server is busy.
+     * 
+     * @return The priority
+     */
+    public Priority getPriority() {
+        return priority;
+    }
+    
+    /**
+     * Gets the compiled blocked terms of this TalkGroup.
+     * 
+     * @return The filter, or null if messages are not filtered
+     */
+    public ContentFilter getFilter() {
+        return filter;
+    }
+    
+    /**
+     * Checks whether players in a world can take part in this TalkGroup.
+     * 
+     * @param worldName The world name
+     * @return true if the TalkGroup is not limited to certain worlds or includes this one
+     */
+    public boolean isInWorld(String worldName) {
+        return worlds.isEmpty() || worlds.contains(worldName);
+    }
+    
+    /**
+     * Checks whether messages only reach nearby players or certain worlds.
+     * 
+     * @return true if a radius or a world list is set
+     */
+    public boolean isLocal() {
+        return radius > 0 || !worlds.isEmpty();
+    }
+
+    /**
+     * Compares every configured property, so a reload can tell an
+     * untouched channel apart from one whose settings were edited.
+     *
+     * @param o The object to compare with
+     * @return true if both TalkGroups have identical settings
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TalkGroup other)) {
+            return false;
+        }
+        return cooldown == other.cooldown
+                && silencable == other.silencable
+                && notify == other.notify
+                && notifyDelay == other.notifyDelay
+                && id.equals(other.id)
+                && name.equals(other.name)
+                && permission.equals(other.permission)
+                && alias.equals(other.alias)
+                && prefix.equals(other.prefix)
+                && suffix.equals(other.suffix)
+                && radius == other.radius
+                && quickPrefix.equals(other.quickPrefix)
+                && duplicateWindow == other.duplicateWindow
+                && floodMessages == other.floodMessages
+                && floodSeconds == other.floodSeconds
+                && inbox == other.inbox
+                && priority == other.priority
+                && worlds.equals(other.worlds)
+                && Objects.equals(filter, other.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        // Immutable, so computed once in the constructor
+        return hash;
+    }
+
+    /**
+     * How urgently the messages of a TalkGroup are delivered when more chat
+     * is sent than fits in a tick.
+     */
+    public enum Priority {
+        /** Delivered after normal messages; dropped first when the queue is full or they wait too long. */
+        LOW,
+        /** Waits for the next tick when the tick budget is spent. */
+        NORMAL,
+        /** Always delivered right away, for staff and admin alerts. */
+        HIGH;
+        
+        /**
+         * Parses a priority name, ignoring case.
+         * 
+         * @param name The name, such as "high"
+         * @return The priority, or null if the name is unknown
+         */
+        public static Priority parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+    
     /**
      * Builder class for creating TalkGroup instances.
      */
@@ -168,6 +375,15 @@ public class TalkGroup {
         private String alias;
         private String prefix;
         private String suffix = "";
+        private int radius = 0;
+        private String quickPrefix = "";
+        private int duplicateWindow = 0;
+        private int floodMessages = 0;
+        private int floodSeconds = 5;
+        private boolean inbox = false;
+        private Priority priority = Priority.NORMAL;
+        private Set<String> worlds = Collections.emptySet();
+        private ContentFilter filter;
         
         /**
          * Sets the TalkGroup ID.
@@ -279,6 +495,98 @@ public class TalkGroup {
             return this;
         }
         
+        /**
+         * Sets the distance in blocks within which players hear the TalkGroup.
+         * 
+         * @param radius The radius, or 0 for the whole server
+         * @return This builder
+         */
+        public Builder radius(int radius) {
+            this.radius = radius;
+            return this;
+        }
+        
+        /**
+         * Sets the chat prefix that sends a message to the TalkGroup.
+         * 
+         * @param quickPrefix The quick prefix, or an empty string for none
+         * @return This builder
+         */
+        public Builder quickPrefix(String quickPrefix) {
+            this.quickPrefix = quickPrefix;
+            return this;
+        }
+        
+        /**
+         * Sets how long repeated messages are collapsed for.
+         * 
+         * @param duplicateWindow The window in seconds, 0 to send every repeat
+         * @return This builder
+         */
+        public Builder duplicateWindow(int duplicateWindow) {
+            this.duplicateWindow = duplicateWindow;
+            return this;
+        }
+        
+        /**
+         * Limits how many messages a player can send in a time span.
+         * 
+         * @param messages The message limit, 0 for no limit
+         * @param seconds The time span in seconds
+         * @return This builder
+         */
+        public Builder floodLimit(int messages, int seconds) {
+            this.floodMessages = messages;
+            this.floodSeconds = seconds;
+            return this;
+        }
+        
+        /**
+         * Sets whether messages are kept for members who are offline.
+         * 
+         * @param inbox true to deliver missed messages when members join
+         * @return This builder
+         */
+        public Builder inbox(boolean inbox) {
+            this.inbox = inbox;
+            return this;
+        }
+        
+        /**
+         * Sets how urgently messages are delivered when the server is busy.
+         * 
+         * @param priority The priority
+         * @return This builder
+         */
+        public Builder priority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+        
+        /**
+         * Limits the TalkGroup to certain worlds.
+         * 
+         * @param worlds The world names, or an empty collection for all worlds
+         * @return This builder
+         */
+        public Builder worlds(Collection<String> worlds) {
+            this.worlds = worlds.isEmpty()
+                    ? Collections.emptySet()
+                    : Collections.unmodifiableSet(new HashSet<>(worlds));
+            return this;
+        }
+        
+        /**
+         * Sets the blocked terms of the TalkGroup.
+         * 
+         * @param filter The compiled filter, or null for none
+         * @return This builder
+         */
+        public Builder filter(ContentFilter filter) {
+            this.filter = filter;
+            return this;
+        }
+        
         /**
          * Builds the TalkGroup instance.
          * 
@@ -298,6 +606,18 @@ public class TalkGroup {
             if (alias == null || alias.isEmpty()) {
                 throw new IllegalStateException("TalkGroup alias cannot be null or empty");
             }
+            if (radius < 0) {
+                throw new IllegalStateException("TalkGroup radius cannot be negative");
+            }
+            if (duplicateWindow < 0 || floodMessages < 0 || (floodMessages > 0 && floodSeconds <= 0)) {
+                throw new IllegalStateException("TalkGroup flood limits cannot be negative");
+            }
+            if (priority == null) {
+                throw new IllegalStateException("TalkGroup priority cannot be null");
+            }
+            if (inbox && radius > 0) {
+                throw new IllegalStateException("TalkGroup inbox cannot be used with a radius");
+            }
             
             // Set default prefix to name if not specified
             if (prefix == null) {